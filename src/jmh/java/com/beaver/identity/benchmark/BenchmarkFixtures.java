@@ -0,0 +1,78 @@
+package com.beaver.identity.benchmark;
+
+import com.beaver.auth.roles.Role;
+import com.beaver.identity.membership.entity.WorkspaceMembership;
+import com.beaver.identity.membership.enums.MembershipStatus;
+import com.beaver.identity.role.entity.WorkspaceRole;
+import com.beaver.identity.user.entity.User;
+import com.beaver.identity.workspace.entity.Workspace;
+import com.beaver.identity.workspace.enums.PlanType;
+import com.beaver.identity.workspace.enums.WorkspaceStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Detached entities shaped like the ones the services cache and map.
+ */
+final class BenchmarkFixtures {
+
+    static final String JWT_SECRET = "benchmark-secret-benchmark-secret-benchmark-secret";
+
+    private BenchmarkFixtures() {
+    }
+
+    static User user() {
+        User user = User.builder()
+                .email("john.bob@example.com")
+                .password("$2a$10$igLWo/lAzYgeWhDk.HvLQ.02IVPz5P7sioscx9kM/QNl3VhDCcda2")
+                .name("John Bob")
+                .isActive(true)
+                .lastWorkspaceId(UUID.randomUUID())
+                .build();
+        user.setId(UUID.randomUUID());
+        user.setCreatedAt(LocalDateTime.now());
+        user.setUpdatedAt(LocalDateTime.now());
+        return user;
+    }
+
+    static Workspace workspace(int index) {
+        Workspace workspace = Workspace.builder()
+                .name("Workspace " + index)
+                .status(WorkspaceStatus.ACTIVE)
+                .plan(PlanType.STARTER)
+                .build();
+        workspace.setId(UUID.randomUUID());
+        workspace.setCreatedAt(LocalDateTime.now());
+        workspace.setUpdatedAt(LocalDateTime.now());
+        return workspace;
+    }
+
+    static List<WorkspaceMembership> memberships(User user, int count) {
+        Role[] roles = Role.values();
+        List<WorkspaceMembership> memberships = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Workspace workspace = workspace(i);
+            WorkspaceRole role = WorkspaceRole.builder()
+                    .workspace(workspace)
+                    .roleType(roles[i % roles.length])
+                    .build();
+            role.setId(UUID.randomUUID());
+
+            WorkspaceMembership membership = WorkspaceMembership.builder()
+                    .user(user)
+                    .workspace(workspace)
+                    .role(role)
+                    .status(MembershipStatus.ACTIVE)
+                    .joinedAt(LocalDateTime.now())
+                    .build();
+            membership.setId(UUID.randomUUID());
+            membership.setCreatedAt(LocalDateTime.now());
+            membership.setUpdatedAt(LocalDateTime.now());
+            memberships.add(membership);
+        }
+        return memberships;
+    }
+}
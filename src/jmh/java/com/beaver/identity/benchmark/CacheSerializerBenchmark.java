@@ -0,0 +1,61 @@
+package com.beaver.identity.benchmark;
+
+import com.beaver.identity.common.cache.serialization.JacksonPayloadFormat;
+import com.beaver.identity.common.cache.serialization.VersionedCacheSerializer;
+import com.beaver.identity.membership.dto.MembershipSnapshot;
+import com.beaver.identity.user.dto.UserSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trip through the cache value serializer, for the two value shapes that dominate login and refresh.
+ * Payload sizes are printed at setup; in production they are reported as identity.cache.payload.size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheSerializerBenchmark {
+
+    @Param({"1", "50"})
+    public int membershipCount;
+
+    @Param({"smile", "json"})
+    public String format;
+
+    @Param({"1024", "2147483647"})
+    public int compressionThreshold;
+
+    private RedisSerializer<Object> serializer;
+    private UserSnapshot user;
+    private List<MembershipSnapshot> memberships;
+
+    @Setup
+    public void setUp() {
+        serializer = new VersionedCacheSerializer(
+                "benchmark", JacksonPayloadFormat.forName(format), compressionThreshold, new SimpleMeterRegistry());
+        var entity = BenchmarkFixtures.user();
+        user = UserSnapshot.from(entity);
+        memberships = BenchmarkFixtures.memberships(entity, membershipCount).stream()
+                .map(MembershipSnapshot::from)
+                .toList();
+        System.out.printf("payload bytes: user=%d memberships=%d%n",
+                serializer.serialize(user).length, serializer.serialize(memberships).length);
+    }
+
+    @Benchmark
+    public Object userRoundTrip() {
+        return serializer.deserialize(serializer.serialize(user));
+    }
+
+    @Benchmark
+    public Object membershipsRoundTrip() {
+        return serializer.deserialize(serializer.serialize(memberships));
+    }
+}
@@ -0,0 +1,64 @@
+package com.beaver.identity.benchmark;
+
+import com.beaver.identity.common.mapper.GenericMapper;
+import com.beaver.identity.config.MapperConfig;
+import com.beaver.identity.membership.dto.WorkspaceMembershipDto;
+import com.beaver.identity.membership.entity.WorkspaceMembership;
+import com.beaver.identity.membership.mapper.WorkspaceMembershipMapperImpl;
+import com.beaver.identity.user.dto.UserDto;
+import com.beaver.identity.user.entity.User;
+import com.beaver.identity.user.mapper.UserMapperImpl;
+import com.beaver.identity.workspace.dto.WorkspaceDto;
+import com.beaver.identity.workspace.entity.Workspace;
+import com.beaver.identity.workspace.mapper.WorkspaceMapperImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int membershipCount;
+
+    private GenericMapper mapper;
+    private User user;
+    private Workspace workspace;
+    private List<WorkspaceMembership> memberships;
+
+    @Setup
+    public void setUp() {
+        mapper = new GenericMapper(
+                new MapperConfig().modelMapper(),
+                List.of(new UserMapperImpl(), new WorkspaceMapperImpl(), new WorkspaceMembershipMapperImpl()));
+        user = BenchmarkFixtures.user();
+        workspace = BenchmarkFixtures.workspace(0);
+        memberships = BenchmarkFixtures.memberships(user, membershipCount);
+    }
+
+    @Benchmark
+    public UserDto userToDto() {
+        return mapper.toDto(user, UserDto.class);
+    }
+
+    @Benchmark
+    public WorkspaceDto workspaceToDto() {
+        return mapper.toDto(workspace, WorkspaceDto.class);
+    }
+
+    @Benchmark
+    public List<WorkspaceMembershipDto> membershipsThroughGenericMapper() {
+        return mapper.toDto(memberships, WorkspaceMembershipDto.class);
+    }
+
+    @Benchmark
+    public List<WorkspaceMembershipDto> membershipsFromEntity() {
+        return memberships.stream().map(WorkspaceMembershipDto::fromEntity).toList();
+    }
+}
@@ -0,0 +1,88 @@
+package com.beaver.identity.benchmark;
+
+import com.beaver.identity.auth.token.RefreshClaims;
+import com.beaver.identity.auth.token.RefreshTokenRotation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Refresh token rotation throughput under concurrent refreshes. Each thread walks its own token
+ * family, so every operation consumes an active token and registers its successor, as production
+ * refreshes do. {@code rotateScript} is the Redis script round trip alone; {@code findAndRotate}
+ * adds the record lookup refresh verification does first. Tokens are random strings: the records
+ * are keyed by the token's digest, so their content does not matter here.
+ *
+ * Needs a Redis at {@code -Dbenchmark.redis.host=... -Dbenchmark.redis.port=...}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class RefreshRotationBenchmark {
+
+    private static final long VALIDITY_MILLIS = 604_800_000;
+
+    @State(Scope.Benchmark)
+    public static class Redis {
+
+        LettuceConnectionFactory connectionFactory;
+        RefreshTokenRotation rotation;
+
+        @Setup
+        public void setUp() {
+            connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(
+                    System.getProperty("benchmark.redis.host", "localhost"),
+                    Integer.getInteger("benchmark.redis.port", 6379)));
+            connectionFactory.afterPropertiesSet();
+            connectionFactory.start();
+
+            rotation = new RefreshTokenRotation(new StringRedisTemplate(connectionFactory),
+                    new SimpleMeterRegistry(), VALIDITY_MILLIS, Duration.ofSeconds(10));
+        }
+
+        @TearDown
+        public void tearDown() {
+            connectionFactory.destroy();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Family {
+
+        UUID familyId;
+        String refreshToken;
+
+        @Setup
+        public void setUp(Redis redis) {
+            familyId = UUID.randomUUID();
+            refreshToken = UUID.randomUUID().toString();
+            redis.rotation.start(refreshToken, UUID.randomUUID(), UUID.randomUUID(), familyId, 0L);
+        }
+    }
+
+    @Benchmark
+    public RefreshTokenRotation.Outcome rotateScript(Redis redis, Family family) {
+        String successor = UUID.randomUUID().toString();
+        RefreshTokenRotation.Result result = redis.rotation.rotate(family.refreshToken, family.familyId, successor);
+        family.refreshToken = successor;
+        return result.outcome();
+    }
+
+    @Benchmark
+    public String findAndRotate(Redis redis, Family family) {
+        RefreshClaims claims = redis.rotation.find(family.refreshToken).orElseThrow();
+        family.refreshToken = redis.rotation
+                .rotate(family.refreshToken, claims.familyId(), UUID.randomUUID().toString())
+                .successor();
+        return family.refreshToken;
+    }
+}
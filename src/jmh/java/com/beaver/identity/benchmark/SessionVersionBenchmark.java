@@ -0,0 +1,102 @@
+package com.beaver.identity.benchmark;
+
+import com.beaver.identity.auth.session.SessionVersionService;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Added cost of the session version check on refresh. {@code verifyOnly} is the refresh path's
+ * token parse before revocation existed, done with jjwt directly as {@code JwtService} needs the
+ * beaver-auth Spring context; {@code verifyAndCheckLocal} adds the check as served from
+ * the in-process copy, the common case; {@code verifyAndCheckRedis} forces the Redis read a node
+ * pays after a revocation or once its local copy expires. The Redis copy is seeded, so the database
+ * behind it is never queried.
+ *
+ * Needs a Redis at {@code -Dbenchmark.redis.host=... -Dbenchmark.redis.port=...}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionVersionBenchmark {
+
+    private LettuceConnectionFactory connectionFactory;
+    private SessionVersionService sessionVersionService;
+    private JwtParser parser;
+    private UUID userId;
+    private String refreshToken;
+    private DefaultMessage revokedMessage;
+
+    @Setup
+    public void setUp() {
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(
+                System.getProperty("benchmark.redis.host", "localhost"),
+                Integer.getInteger("benchmark.redis.port", 6379)));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        StringRedisTemplate redisTemplate = new StringRedisTemplate(connectionFactory);
+        sessionVersionService = new SessionVersionService(redisTemplate, new JdbcTemplate(), container,
+                new SimpleMeterRegistry(), Duration.ofHours(24), 100_000, Duration.ofMinutes(1));
+        parser = Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(BenchmarkFixtures.JWT_SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build();
+
+        userId = UUID.randomUUID();
+        redisTemplate.opsForValue().set("session:version:user:" + userId, "0", Duration.ofHours(1));
+        refreshToken = Jwts.builder()
+                .subject(userId.toString())
+                .claim("userId", userId.toString())
+                .claim("workspaceId", UUID.randomUUID().toString())
+                .claim("type", "refresh")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 604_800_000))
+                .signWith(Keys.hmacShaKeyFor(BenchmarkFixtures.JWT_SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+        revokedMessage = new DefaultMessage(
+                SessionVersionService.REVOKED_TOPIC.getTopic().getBytes(StandardCharsets.UTF_8),
+                userId.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @TearDown
+    public void tearDown() {
+        connectionFactory.destroy();
+    }
+
+    @Benchmark
+    public String verifyOnly() {
+        return parser.parseSignedClaims(refreshToken).getPayload().get("userId", String.class);
+    }
+
+    @Benchmark
+    public boolean verifyAndCheckLocal() {
+        parser.parseSignedClaims(refreshToken);
+        return 0L >= sessionVersionService.current(userId);
+    }
+
+    @Benchmark
+    public boolean verifyAndCheckRedis() {
+        parser.parseSignedClaims(refreshToken);
+        sessionVersionService.onMessage(revokedMessage, null);
+        return 0L >= sessionVersionService.current(userId);
+    }
+}
@@ -0,0 +1,123 @@
+package com.beaver.identity.benchmark;
+
+import com.beaver.auth.roles.Role;
+import com.beaver.identity.auth.signup.NewSignup;
+import com.beaver.identity.auth.signup.SignupWriter;
+import com.beaver.identity.common.audit.AuditContext;
+import com.beaver.identity.common.outbox.Outbox;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Signups per second against a migrated Postgres, with passwords pre-hashed so only the write path
+ * is measured. {@code legacySequence} replays the statements and transactions the JPA signup used
+ * to issue; the pipeline variants go through {@link SignupWriter}.
+ *
+ * Point it at a database with {@code -Dbenchmark.jdbc.url=... -Dbenchmark.jdbc.username=...
+ * -Dbenchmark.jdbc.password=...}. Rows are left behind, so use a throwaway database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SignupBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+    private static final String PASSWORD_HASH = "$2a$10$igLWo/lAzYgeWhDk.HvLQ.02IVPz5P7sioscx9kM/QNl3VhDCcda2";
+
+    private final String runId = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong sequence = new AtomicLong();
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private SignupWriter signupWriter;
+
+    @Setup
+    public void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                System.getProperty("benchmark.jdbc.url", "jdbc:postgresql://localhost:5432/identity?reWriteBatchedInserts=true"),
+                System.getProperty("benchmark.jdbc.username", "postgres"),
+                System.getProperty("benchmark.jdbc.password", "postgres"));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        signupWriter = new SignupWriter(jdbcTemplate, new Outbox(jdbcTemplate, new ObjectMapper()));
+    }
+
+    @Benchmark
+    public void legacySequence() {
+        String email = nextEmail();
+        UUID userId = UUID.randomUUID();
+        UUID workspaceId = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+
+        // Controller check, then the former UserService.createUser in its own transaction
+        jdbcTemplate.queryForList("SELECT id FROM users WHERE email = ?", UUID.class, email);
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.queryForList("SELECT id FROM users WHERE email = ?", UUID.class, email);
+            jdbcTemplate.update("INSERT INTO users (id, email, password, name, is_active, created_at, updated_at, updated_by) " +
+                    "VALUES (?, ?, ?, ?, true, ?, ?, ?)", userId, email, PASSWORD_HASH, "Bench User", now, now, AuditContext.SYSTEM_USER_ID);
+        });
+
+        // WorkspaceService.createDefaultWorkspace: workspace, role lookup, one insert per role, membership
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("INSERT INTO workspaces (id, name, status, plan, created_at, updated_at, updated_by) " +
+                    "VALUES (?, ?, 'ACTIVE', 'STARTER', ?, ?, ?)", workspaceId, "Bench Workspace", now, now, AuditContext.SYSTEM_USER_ID);
+            jdbcTemplate.queryForList("SELECT id FROM roles WHERE workspace_id = ?", UUID.class, workspaceId);
+            UUID ownerRoleId = null;
+            for (Role role : Role.values()) {
+                UUID roleId = UUID.randomUUID();
+                ownerRoleId = role == Role.OWNER ? roleId : ownerRoleId;
+                jdbcTemplate.update("INSERT INTO roles (id, workspace_id, role_type, created_at, updated_at, updated_by) " +
+                        "VALUES (?, ?, ?, ?, ?, ?)", roleId, workspaceId, role.name(), now, now, AuditContext.SYSTEM_USER_ID);
+            }
+            jdbcTemplate.queryForList("SELECT id FROM roles WHERE workspace_id = ? AND role_type = 'OWNER'", UUID.class, workspaceId);
+            jdbcTemplate.update("INSERT INTO workspace_memberships (id, user_id, workspace_id, role_id, status, joined_at, created_at, updated_at, updated_by) " +
+                    "VALUES (?, ?, ?, ?, 'ACTIVE', ?, ?, ?, ?)", UUID.randomUUID(), userId, workspaceId, ownerRoleId, now, now, now, AuditContext.SYSTEM_USER_ID);
+        });
+
+        // UserService.updateUser: re-read, then write lastWorkspaceId
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.queryForList("SELECT id FROM users WHERE id = ?", UUID.class, userId);
+            jdbcTemplate.update("UPDATE users SET last_workspace_id = ?, updated_at = ? WHERE id = ?", workspaceId, now, userId);
+        });
+    }
+
+    @Benchmark
+    public Object pipelineSingle() {
+        List<NewSignup> signups = List.of(new NewSignup(nextEmail(), PASSWORD_HASH, "Bench User"));
+        return transactionTemplate.execute(status -> {
+            signupWriter.findExistingEmails(List.of(signups.getFirst().email()));
+            return signupWriter.insertAll(signups);
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public Object pipelineBatch() {
+        List<NewSignup> signups = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            signups.add(new NewSignup(nextEmail(), PASSWORD_HASH, "Bench User"));
+        }
+        return transactionTemplate.execute(status -> {
+            signupWriter.findExistingEmails(signups.stream().map(NewSignup::email).toList());
+            return signupWriter.insertAll(signups);
+        });
+    }
+
+    private String nextEmail() {
+        return "bench-" + runId + "-" + sequence.incrementAndGet() + "@example.com";
+    }
+}
@@ -0,0 +1,87 @@
+package com.beaver.identity.benchmark;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token minting with the claim set AuthController issues, and refresh-token verification:
+ * the previous path parsed and signature-checked the token once per extracted claim (three times),
+ * RefreshTokenVerifier validates it once and reads the ids from the token's record.
+ *
+ * JwtService needs the beaver-auth Spring context, so minting is measured with the same jjwt
+ * primitives, key size and claims it uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenBenchmark {
+
+    private SecretKey key;
+    private JwtParser parser;
+    private String userId;
+    private String workspaceId;
+    private String refreshToken;
+
+    @Setup
+    public void setUp() {
+        key = Keys.hmacShaKeyFor(BenchmarkFixtures.JWT_SECRET.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser().verifyWith(key).build();
+        userId = UUID.randomUUID().toString();
+        workspaceId = UUID.randomUUID().toString();
+        refreshToken = mintRefreshToken();
+    }
+
+    @Benchmark
+    public String mintAccessToken() {
+        return Jwts.builder()
+                .subject(userId)
+                .claim("userId", userId)
+                .claim("email", "john.bob@example.com")
+                .claim("name", "John Bob")
+                .claim("workspaceId", workspaceId)
+                .claim("role", "OWNER")
+                .claim("type", "access")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 900_000))
+                .signWith(key)
+                .compact();
+    }
+
+    @Benchmark
+    public String mintRefreshToken() {
+        return Jwts.builder()
+                .subject(userId)
+                .claim("userId", userId)
+                .claim("workspaceId", workspaceId)
+                .claim("type", "refresh")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 604_800_000))
+                .signWith(key)
+                .compact();
+    }
+
+    @Benchmark
+    public String[] refreshThreeParses() {
+        Claims validated = parser.parseSignedClaims(refreshToken).getPayload();
+        String extractedUserId = parser.parseSignedClaims(refreshToken).getPayload().get("userId", String.class);
+        String extractedWorkspaceId = parser.parseSignedClaims(refreshToken).getPayload().get("workspaceId", String.class);
+        return new String[]{validated.getSubject(), extractedUserId, extractedWorkspaceId};
+    }
+
+    @Benchmark
+    public String refreshSingleParse() {
+        return parser.parseSignedClaims(refreshToken).getPayload().get("type", String.class);
+    }
+}
@@ -0,0 +1,78 @@
+package com.beaver.identity.benchmark;
+
+import com.beaver.identity.common.entity.UuidV7;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rows per second inserted into a table shaped like {@code users} (UUID primary key plus a unique
+ * email index), keyed by random v4 or time-ordered v7 UUIDs. At teardown the primary key index
+ * size and the share of its blocks served from shared buffers are printed for each key type.
+ *
+ * Uses a scratch table in the database given by {@code -Dbenchmark.jdbc.url=...}; see
+ * {@link SignupBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class UuidInsertBenchmark {
+
+    private static final int BATCH_SIZE = 500;
+
+    @Param({"v4", "v7"})
+    public String keyType;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private JdbcTemplate jdbcTemplate;
+    private String table;
+
+    @Setup
+    public void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                System.getProperty("benchmark.jdbc.url", "jdbc:postgresql://localhost:5432/identity?reWriteBatchedInserts=true"),
+                System.getProperty("benchmark.jdbc.username", "postgres"),
+                System.getProperty("benchmark.jdbc.password", "postgres")));
+
+        table = "uuid_bench_" + keyType;
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + table);
+        jdbcTemplate.execute("CREATE TABLE " + table + " (" +
+                "id UUID PRIMARY KEY, " +
+                "email VARCHAR(255) UNIQUE NOT NULL, " +
+                "created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void insert() {
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            UUID id = "v7".equals(keyType) ? UuidV7.next() : UUID.randomUUID();
+            rows.add(new Object[]{id, "user-" + sequence.incrementAndGet() + "@example.com"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO " + table + " (id, email) VALUES (?, ?)", rows);
+    }
+
+    @TearDown
+    public void report() {
+        jdbcTemplate.execute("ANALYZE " + table);
+        System.out.printf("%n%s: rows=%d pkey_index=%s table=%s pkey_buffer_hit_ratio=%s%n",
+                keyType,
+                jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Long.class),
+                jdbcTemplate.queryForObject("SELECT pg_size_pretty(pg_relation_size(?::regclass))", String.class, table + "_pkey"),
+                jdbcTemplate.queryForObject("SELECT pg_size_pretty(pg_relation_size(?::regclass))", String.class, table),
+                jdbcTemplate.queryForObject(
+                        "SELECT round(idx_blks_hit::numeric / nullif(idx_blks_hit + idx_blks_read, 0), 4) " +
+                        "FROM pg_statio_user_indexes WHERE indexrelname = ?", String.class, table + "_pkey"));
+    }
+}
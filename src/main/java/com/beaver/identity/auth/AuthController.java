@@ -5,16 +5,22 @@ import com.beaver.auth.jwt.JwtService;
 import com.beaver.auth.cookie.AuthCookieService;
 import com.beaver.auth.exceptions.AuthenticationFailedException;
 import com.beaver.auth.exceptions.InvalidRefreshTokenException;
-import com.beaver.auth.jwt.RefreshToken;
 import com.beaver.identity.auth.dto.AuthResponse;
 import com.beaver.identity.auth.dto.LoginRequest;
 import com.beaver.identity.auth.dto.SignupRequest;
+import com.beaver.identity.auth.password.PasswordHashingService;
+import com.beaver.identity.auth.session.SessionPrincipal;
+import com.beaver.identity.auth.session.SessionVersionService;
+import com.beaver.identity.auth.signup.SignupResult;
+import com.beaver.identity.auth.signup.SignupService;
+import com.beaver.identity.auth.throttle.LoginThrottle;
+import com.beaver.identity.auth.token.RefreshResult;
+import com.beaver.identity.auth.token.RefreshTokenIssuer;
+import com.beaver.identity.auth.token.RefreshTokenVerifier;
+import com.beaver.identity.auth.token.TokenRefreshService;
+import com.beaver.identity.common.exception.UserAlreadyExistsException;
 import com.beaver.identity.user.UserService;
-import com.beaver.identity.user.dto.UpdateUser;
-import com.beaver.identity.user.entity.User;
-import com.beaver.identity.workspace.WorkspaceService;
-import com.beaver.identity.membership.MembershipService;
-import com.beaver.identity.membership.entity.WorkspaceMembership;
+import com.beaver.identity.user.dto.LoginBundle;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -22,12 +28,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
 
 @Slf4j
 @RestController
@@ -36,50 +38,45 @@ import java.util.UUID;
 public class AuthController {
 
     private final UserService userService;
-    private final WorkspaceService workspaceService;
-    private final MembershipService membershipService;
+    private final SignupService signupService;
     private final JwtService jwtService;
     private final AuthCookieService cookieService;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final TokenRefreshService tokenRefreshService;
+    private final RefreshTokenIssuer refreshTokenIssuer;
+    private final RefreshTokenVerifier refreshTokenVerifier;
+    private final SessionVersionService sessionVersionService;
+    private final LoginThrottle loginThrottle;
 
     @PostMapping(value = "/login", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request) {
-        Optional<User> userOpt = userService.findByEmail(request.email());
-        if (userOpt.isEmpty()) {
-            throw new AuthenticationFailedException("Email not found");
-        }
+    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request, HttpServletRequest httpRequest) {
+        // Before any lookup or hash, so throttled attempts cost no database or BCrypt time
+        loginThrottle.acquire(request.email(), httpRequest.getRemoteAddr());
 
-        User user = userOpt.get();
-        if (!passwordEncoder.matches(request.password(), user.getPassword())) {
-            throw new AuthenticationFailedException("Email or password incorrect");
-        }
+        LoginBundle bundle = userService.findLoginBundle(request.email())
+                .orElseThrow(() -> new AuthenticationFailedException("Email not found"));
 
-        List<WorkspaceMembership> memberships = membershipService.findActiveByUserId(user.getId());
-        if (memberships.isEmpty()) {
-            throw new AuthenticationFailedException("User has no active workspaces");
+        if (!passwordHashingService.matches(request.password(), bundle.passwordHash())) {
+            throw new AuthenticationFailedException("Email or password incorrect");
         }
+        passwordHashingService.upgradeInBackground(request.password(), bundle.passwordHash(),
+                upgradedHash -> userService.upgradePasswordHash(
+                        bundle.userId(), bundle.email(), bundle.passwordHash(), upgradedHash));
 
-        WorkspaceMembership membership = memberships.stream()
-                .filter(m -> m.getWorkspace().getId().equals(user.getLastWorkspaceId()))
-                .findFirst()
-                .orElse(memberships.getFirst());
+        LoginBundle.Grant membership = bundle.defaultMembership()
+                .orElseThrow(() -> new AuthenticationFailedException("User has no active workspaces"));
 
         String accessToken = jwtService.generateAccessToken(
                 AccessToken.builder()
-                        .userId(user.getId().toString())
-                        .email(user.getEmail())
-                        .name(user.getName())
-                        .workspaceId(membership.getWorkspace().getId().toString())
-                        .role(membership.getRole().toString())
+                        .userId(bundle.userId().toString())
+                        .email(bundle.email())
+                        .name(bundle.name())
+                        .workspaceId(membership.workspaceId().toString())
+                        .role(membership.role().name())
                         .build()
         );
 
-        String refreshToken = jwtService.generateRefreshToken(
-                RefreshToken.builder()
-                        .userId(user.getId().toString())
-                        .workspaceId(membership.getWorkspace().getId().toString())
-                        .build()
-        );
+        String refreshToken = refreshTokenIssuer.issue(bundle.userId(), membership.workspaceId());
 
         return ResponseEntity.ok()
             .header(HttpHeaders.SET_COOKIE, cookieService.createAccessTokenCookie(accessToken).toString())
@@ -87,42 +84,32 @@ public class AuthController {
             .body(AuthResponse.builder()
                     .success(true)
                     .message("Login successful")
-                    .userId(user.getId())
-                    .workspaceId(membership.getWorkspace().getId())
+                    .userId(bundle.userId())
+                    .workspaceId(membership.workspaceId())
                     .build()
             );
     }
 
     @PostMapping(value = "/signup", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<AuthResponse> signup(@Valid @RequestBody SignupRequest request) {
-        Optional<User> existingUser = userService.findByEmail(request.email());
-        if (existingUser.isPresent()) {
+        SignupResult account;
+        try {
+            account = signupService.signup(request);
+        } catch (UserAlreadyExistsException e) {
             throw new AuthenticationFailedException("An account already exists with that email, do you want to login?");
         }
 
-        User user = userService.createUser(request.email(), request.password(), request.name());
-        WorkspaceMembership membership = workspaceService.createDefaultWorkspace(user);
-
-        userService.updateUser(user.getId(), UpdateUser.builder()
-                .lastWorkspaceId(membership.getWorkspace().getId())
-                .build());
-
         String accessToken = jwtService.generateAccessToken(
                 AccessToken.builder()
-                        .userId(user.getId().toString())
-                        .email(user.getEmail())
-                        .name(user.getName())
-                        .workspaceId(membership.getWorkspace().getId().toString())
-                        .role(membership.getRole().toString())
+                        .userId(account.userId().toString())
+                        .email(account.email())
+                        .name(account.name())
+                        .workspaceId(account.workspaceId().toString())
+                        .role(account.role().name())
                         .build()
         );
 
-        String refreshToken = jwtService.generateRefreshToken(
-                RefreshToken.builder()
-                        .userId(user.getId().toString())
-                        .workspaceId(membership.getWorkspace().getId().toString())
-                        .build()
-        );
+        String refreshToken = refreshTokenIssuer.issue(account.userId(), account.workspaceId());
 
         return ResponseEntity.ok()
             .header(HttpHeaders.SET_COOKIE, cookieService.createAccessTokenCookie(accessToken).toString())
@@ -130,8 +117,8 @@ public class AuthController {
             .body(AuthResponse.builder()
                     .success(true)
                     .message("Signup successful")
-                    .userId(user.getId())
-                    .workspaceId(membership.getWorkspace().getId())
+                    .userId(account.userId())
+                    .workspaceId(account.workspaceId())
                     .build()
             );
     }
@@ -143,43 +130,37 @@ public class AuthController {
             throw new InvalidRefreshTokenException("Refresh token cookie not found");
         }
 
-        jwtService.validateRefreshToken(refreshToken).block();
-        String userId = jwtService.extractUserIdFromToken(refreshToken).block();
-        String workspaceId = jwtService.extractWorkspaceIdFromToken(refreshToken).block();
-
-        User user = userService.findById(UUID.fromString(userId));
-
-        List<WorkspaceMembership> memberships = membershipService.findActiveByUserId(user.getId());
-        if (memberships.isEmpty()) {
-            throw new AuthenticationFailedException("User has no active workspaces");
-        }
-
-        WorkspaceMembership membership = membershipService.findByUserIdAndWorkspaceId(user.getId(), UUID.fromString(workspaceId))
-                .orElseThrow(() -> new AuthenticationFailedException("User has no memberships to that workspace"));
-
-        String newAccessToken = jwtService.generateAccessToken(
-                AccessToken.builder()
-                        .userId(user.getId().toString())
-                        .email(user.getEmail())
-                        .name(user.getName())
-                        .workspaceId(membership.getWorkspace().getId().toString())
-                        .role(membership.getRole().toString())
-                        .build()
-        );
+        RefreshResult result = tokenRefreshService.refresh(refreshToken);
+        SessionPrincipal principal = result.principal();
 
         return ResponseEntity.ok()
-            .header(HttpHeaders.SET_COOKIE, cookieService.createAccessTokenCookie(newAccessToken).toString())
+            .header(HttpHeaders.SET_COOKIE, cookieService.createAccessTokenCookie(result.accessToken()).toString())
+            .header(HttpHeaders.SET_COOKIE, cookieService.createRefreshTokenCookie(result.refreshToken()).toString())
             .body(AuthResponse.builder()
                     .success(true)
                     .message("Token refreshed successful")
-                    .userId(user.getId())
-                    .workspaceId(membership.getWorkspace().getId())
+                    .userId(principal.userId())
+                    .workspaceId(principal.workspaceId())
                     .build()
             );
     }
 
+    /**
+     * Revokes every session of the user the refresh cookie belongs to, then clears the cookies.
+     * Only a verified refresh token identifies the user: a logout must not be able to revoke
+     * somebody else's sessions. Outstanding access tokens stay valid until they expire.
+     */
     @PostMapping(value = "/logout", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<AuthResponse> logout() {
+    public ResponseEntity<AuthResponse> logout(HttpServletRequest request) {
+        String refreshToken = cookieService.extractRefreshToken(request);
+        if (refreshToken != null) {
+            try {
+                sessionVersionService.revoke(refreshTokenVerifier.verify(refreshToken).userId());
+            } catch (InvalidRefreshTokenException e) {
+                log.debug("Logout with an invalid refresh token, only clearing cookies");
+            }
+        }
+
         return ResponseEntity.ok()
             .header(HttpHeaders.SET_COOKIE, cookieService.clearAccessTokenCookie().toString())
             .header(HttpHeaders.SET_COOKIE, cookieService.clearRefreshTokenCookie().toString())
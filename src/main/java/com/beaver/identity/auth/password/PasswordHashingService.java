@@ -0,0 +1,155 @@
+package com.beaver.identity.auth.password;
+
+import com.beaver.identity.common.exception.ServiceBusyException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs password hashing and verification on a bounded, CPU-sized pool so that BCrypt
+ * work cannot occupy every request thread. When the queue is full callers are rejected
+ * immediately with a {@link ServiceBusyException} instead of queueing behind the spike.
+ */
+@Slf4j
+@Service
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final ThreadPoolExecutor upgradeExecutor;
+    private final long retryAfterSeconds;
+
+    private final Timer waitTimer;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+
+    public PasswordHashingService(
+            PasswordEncoder passwordEncoder,
+            MeterRegistry meterRegistry,
+            @Value("${password.executor.threads:0}") int threads,
+            @Value("${password.executor.queue-capacity:64}") int queueCapacity,
+            @Value("${password.executor.retry-after-seconds:1}") long retryAfterSeconds,
+            @Value("${password.upgrade.queue-capacity:16}") int upgradeQueueCapacity) {
+        this.passwordEncoder = passwordEncoder;
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        // Rehashes never share the login queue: one low-priority thread, and whatever does not
+        // fit its small queue is dropped
+        this.upgradeExecutor = new ThreadPoolExecutor(
+                1, 1,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(upgradeQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-upgrade");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("identity.password.queue.depth", executor, e -> e.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("identity.password.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("identity.password.wait").register(meterRegistry);
+        this.encodeTimer = Timer.builder("identity.password.hash").tag("operation", "encode").register(meterRegistry);
+        this.matchesTimer = Timer.builder("identity.password.hash").tag("operation", "matches").register(meterRegistry);
+
+        log.info("Password hashing pool started with {} threads and queue capacity {}", poolSize, queueCapacity);
+    }
+
+    public String encode(CharSequence rawPassword) {
+        return submit(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(matchesTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Rehashes the password off the request path when the stored hash uses outdated parameters.
+     * Runs on its own single low-priority thread so it never takes queue slots from logins, and
+     * is skipped silently while logins are queueing or the upgrade queue is full; the next
+     * successful login will try again.
+     */
+    public void upgradeInBackground(CharSequence rawPassword, String encodedPassword, Consumer<String> onRehash) {
+        if (!passwordEncoder.upgradeEncoding(encodedPassword)) {
+            return;
+        }
+        if (!executor.getQueue().isEmpty()) {
+            log.debug("Skipping password hash upgrade, logins are queueing");
+            return;
+        }
+
+        try {
+            upgradeExecutor.execute(() -> {
+                try {
+                    onRehash.accept(encodeTimer.record(() -> passwordEncoder.encode(rawPassword)));
+                } catch (Exception e) {
+                    log.warn("Failed to upgrade password hash", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Skipping password hash upgrade, upgrade queue is full");
+        }
+    }
+
+    private <T> T submit(Timer hashTimer, Callable<T> task) {
+        long enqueuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                waitTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                return hashTimer.recordCallable(task);
+            });
+        } catch (RejectedExecutionException e) {
+            throw new ServiceBusyException("Too many concurrent authentication requests", retryAfterSeconds);
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        upgradeExecutor.shutdown();
+    }
+}
@@ -0,0 +1,20 @@
+package com.beaver.identity.auth.session;
+
+import com.beaver.auth.roles.Role;
+
+import java.util.UUID;
+
+/**
+ * What an access token for one (user, workspace) pair carries, tagged with the user and
+ * workspace versions it was built from. An entry is only valid while both versions are current.
+ */
+public record SessionPrincipal(
+        UUID userId,
+        UUID workspaceId,
+        String email,
+        String name,
+        Role role,
+        long userVersion,
+        long workspaceVersion
+) {
+}
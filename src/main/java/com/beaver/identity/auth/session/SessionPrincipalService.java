@@ -0,0 +1,154 @@
+package com.beaver.identity.auth.session;
+
+import com.beaver.identity.membership.IMembershipRepository;
+import com.beaver.identity.membership.enums.MembershipStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Caches the (user, workspace) principal needed to mint an access token, so that token refresh
+ * can be answered with a single Redis round trip.
+ *
+ * Each entry records the user and workspace versions it was built from. Writers bump those
+ * versions after their transaction commits; a reader that sees a newer version than the entry
+ * reloads it. Versions are always read before the database, so an entry can never be tagged with
+ * a version newer than the data it holds.
+ *
+ * A bump writes a fresh random version rather than incrementing, and version keys expire after
+ * twice the entry TTL. Every entry tagged with an older version is gone before its version key
+ * expires, and a version that reappears after expiry can never match an entry still alive.
+ */
+@Slf4j
+@Service
+public class SessionPrincipalService {
+
+    private static final String ENTRY_PREFIX = "principal:";
+    private static final String USER_VERSION_PREFIX = "principal:version:user:";
+    private static final String WORKSPACE_VERSION_PREFIX = "principal:version:workspace:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final IMembershipRepository membershipRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration entryTtl;
+    private final Duration versionTtl;
+
+    public SessionPrincipalService(
+            StringRedisTemplate redisTemplate,
+            IMembershipRepository membershipRepository,
+            ObjectMapper objectMapper,
+            @Value("${session.principal.ttl:PT30M}") Duration entryTtl) {
+        this.redisTemplate = redisTemplate;
+        this.membershipRepository = membershipRepository;
+        this.objectMapper = objectMapper;
+        this.entryTtl = entryTtl;
+        this.versionTtl = entryTtl.multipliedBy(2);
+    }
+
+    public Optional<SessionPrincipal> findPrincipal(UUID userId, UUID workspaceId) {
+        String entryKey = entryKey(userId, workspaceId);
+        List<String> values = redisTemplate.opsForValue().multiGet(List.of(
+                entryKey,
+                USER_VERSION_PREFIX + userId,
+                WORKSPACE_VERSION_PREFIX + workspaceId));
+
+        long userVersion = parseVersion(values, 1);
+        long workspaceVersion = parseVersion(values, 2);
+
+        SessionPrincipal cached = decode(values != null ? values.get(0) : null);
+        if (cached != null && cached.userVersion() == userVersion && cached.workspaceVersion() == workspaceVersion) {
+            return Optional.of(cached);
+        }
+
+        Optional<SessionPrincipal> loaded = membershipRepository
+                .findPrincipal(userId, workspaceId, MembershipStatus.ACTIVE)
+                .map(row -> new SessionPrincipal(
+                        userId, workspaceId, row.email(), row.name(), row.role(), userVersion, workspaceVersion));
+
+        loaded.ifPresent(principal -> {
+            String encoded = encode(principal);
+            if (encoded != null) {
+                redisTemplate.opsForValue().set(entryKey, encoded, entryTtl);
+            }
+        });
+        return loaded;
+    }
+
+    /**
+     * Invalidates every principal of the user once the current transaction commits.
+     */
+    public void bumpUserVersion(UUID userId) {
+        afterCommit(() -> bump(USER_VERSION_PREFIX + userId));
+    }
+
+    /**
+     * Invalidates every principal in the workspace once the current transaction commits.
+     */
+    public void bumpWorkspaceVersion(UUID workspaceId) {
+        afterCommit(() -> bump(WORKSPACE_VERSION_PREFIX + workspaceId));
+    }
+
+    private void bump(String versionKey) {
+        long version;
+        do {
+            version = ThreadLocalRandom.current().nextLong();
+        } while (version == 0L);
+        redisTemplate.opsForValue().set(versionKey, Long.toString(version), versionTtl);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static String entryKey(UUID userId, UUID workspaceId) {
+        return ENTRY_PREFIX + userId + ":" + workspaceId;
+    }
+
+    private static long parseVersion(List<String> values, int index) {
+        if (values == null || values.get(index) == null) {
+            return 0L;
+        }
+        return Long.parseLong(values.get(index));
+    }
+
+    private SessionPrincipal decode(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(value, SessionPrincipal.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Discarding unreadable session principal entry", e);
+            return null;
+        }
+    }
+
+    private String encode(SessionPrincipal principal) {
+        try {
+            return objectMapper.writeValueAsString(principal);
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to encode session principal for user {}", principal.userId(), e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.beaver.identity.auth.session;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Per-user session version. Refresh tokens carry the version current when they were minted, and
+ * bumping it revokes every session the user has: any token minted before is rejected on refresh.
+ *
+ * The version is stored in {@code users.session_version} and incremented in the revoking
+ * transaction, so a revocation is exactly as durable as the change that caused it. Redis holds
+ * copies that expire, and each node mirrors them in a bounded in-process cache, so the check on
+ * refresh is a local map lookup. A copy missing from Redis is reloaded from the database, and
+ * copies are only ever raised, never lowered, so a late writer cannot undo a revocation. A user
+ * that no longer exists gets a version no token can match. Revocations are announced over pub/sub
+ * so every node drops its copy at once; the local TTL bounds staleness should an announcement be
+ * lost.
+ */
+@Slf4j
+@Service
+public class SessionVersionService implements MessageListener {
+
+    public static final ChannelTopic REVOKED_TOPIC = new ChannelTopic("identity:sessions:revoked");
+
+    /**
+     * Returned for users that do not exist, so every token of a deleted account is rejected.
+     */
+    static final long REVOKED = Long.MAX_VALUE;
+
+    private static final String VERSION_PREFIX = "session:version:user:";
+
+    private static final RedisScript<Long> RAISE = new DefaultRedisScript<>(
+            "local current = tonumber(redis.call('get', KEYS[1])) " +
+            "local proposed = tonumber(ARGV[1]) " +
+            "if current and current >= proposed then return current end " +
+            "redis.call('set', KEYS[1], ARGV[1], 'PX', ARGV[2]) " +
+            "return proposed",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration redisTtl;
+    private final Cache<UUID, Long> local;
+    private final Counter revocations;
+
+    public SessionVersionService(
+            StringRedisTemplate redisTemplate,
+            JdbcTemplate jdbcTemplate,
+            RedisMessageListenerContainer listenerContainer,
+            MeterRegistry meterRegistry,
+            @Value("${session.version.redis-ttl:PT24H}") Duration redisTtl,
+            @Value("${session.version.local-max-size:100000}") long localMaximumSize,
+            @Value("${session.version.local-ttl:PT1M}") Duration localTtl) {
+        this.redisTemplate = redisTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.redisTtl = redisTtl;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(localMaximumSize)
+                .expireAfterWrite(localTtl)
+                .build();
+        this.revocations = Counter.builder("identity.sessions.revocations").register(meterRegistry);
+
+        listenerContainer.addMessageListener(this, REVOKED_TOPIC);
+    }
+
+    public long current(UUID userId) {
+        return local.get(userId, this::load);
+    }
+
+    /**
+     * Revokes every session of the user. The version is incremented in the current transaction,
+     * or on its own when there is none; caches and other nodes learn about it once that commits.
+     */
+    public void revoke(UUID userId) {
+        List<Long> incremented = jdbcTemplate.queryForList(
+                "UPDATE users SET session_version = session_version + 1 WHERE id = ? RETURNING session_version",
+                Long.class, userId);
+        long version = incremented.isEmpty() ? REVOKED : incremented.getFirst();
+
+        afterCommit(() -> {
+            local.put(userId, raise(userId, version));
+            revocations.increment();
+            try {
+                redisTemplate.convertAndSend(REVOKED_TOPIC.getTopic(), userId.toString());
+            } catch (Exception e) {
+                // Other nodes catch up when their local copy expires
+                log.warn("Failed to announce session revocation for user {}", userId, e);
+            }
+        });
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            local.invalidate(UUID.fromString(new String(message.getBody(), StandardCharsets.UTF_8)));
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring malformed session revocation message");
+        }
+    }
+
+    private long load(UUID userId) {
+        String value = redisTemplate.opsForValue().get(VERSION_PREFIX + userId);
+        if (value != null) {
+            return Long.parseLong(value);
+        }
+        List<Long> stored = jdbcTemplate.queryForList(
+                "SELECT session_version FROM users WHERE id = ?", Long.class, userId);
+        if (stored.isEmpty()) {
+            return REVOKED;
+        }
+        return raise(userId, stored.getFirst());
+    }
+
+    /**
+     * Stores the version in Redis unless a newer one is already there, and returns whichever is
+     * newer. A failed write only costs the next reader a database query.
+     */
+    private long raise(UUID userId, long version) {
+        if (version == REVOKED) {
+            return REVOKED;
+        }
+        try {
+            Long stored = redisTemplate.execute(RAISE, List.of(VERSION_PREFIX + userId),
+                    Long.toString(version), Long.toString(redisTtl.toMillis()));
+            return stored != null ? stored : version;
+        } catch (Exception e) {
+            log.warn("Failed to store session version for user {}", userId, e);
+            return version;
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.beaver.identity.auth.signup;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk signup: the accounts created, and the emails skipped because they were
+ * already registered, either before the batch or by a concurrent signup while it was written.
+ */
+public record BulkSignupResult(List<SignupResult> created, List<String> alreadyRegistered) {
+}
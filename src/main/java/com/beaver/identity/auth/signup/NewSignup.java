@@ -0,0 +1,7 @@
+package com.beaver.identity.auth.signup;
+
+/**
+ * A signup ready to be written, with the password already hashed.
+ */
+public record NewSignup(String email, String passwordHash, String name) {
+}
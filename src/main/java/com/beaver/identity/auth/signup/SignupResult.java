@@ -0,0 +1,10 @@
+package com.beaver.identity.auth.signup;
+
+import com.beaver.auth.roles.Role;
+
+import java.util.List;
+import java.util.UUID;
+
+public record SignupResult(UUID userId, String email, String name, UUID workspaceId, Role role,
+                           List<UUID> roleIds, UUID membershipId) {
+}
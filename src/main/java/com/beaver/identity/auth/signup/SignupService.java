@@ -0,0 +1,131 @@
+package com.beaver.identity.auth.signup;
+
+import com.beaver.identity.auth.dto.SignupRequest;
+import com.beaver.identity.auth.password.PasswordHashingService;
+import com.beaver.identity.common.audit.AuditAction;
+import com.beaver.identity.common.audit.AuditEvent;
+import com.beaver.identity.common.audit.AuditTrail;
+import com.beaver.identity.common.exception.UserAlreadyExistsException;
+import com.beaver.identity.user.RegisteredEmailFilter;
+import com.beaver.identity.user.UserService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Signup pipeline: hashes passwords outside any transaction, checks every email in one query,
+ * then writes all users, workspaces, roles and memberships in a single transaction through
+ * {@link SignupWriter}. Caches are only touched after the commit.
+ *
+ * An email registered by a concurrent signup between the check and the insert skips only that
+ * entry; it is reported with the already registered emails instead of failing the batch.
+ */
+@Slf4j
+@Service
+public class SignupService {
+
+    private final SignupWriter signupWriter;
+    private final PasswordHashingService passwordHashingService;
+    private final RegisteredEmailFilter registeredEmailFilter;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate transactionTemplate;
+    private final AuditTrail auditTrail;
+
+    public SignupService(SignupWriter signupWriter,
+                         PasswordHashingService passwordHashingService,
+                         RegisteredEmailFilter registeredEmailFilter,
+                         CacheManager cacheManager,
+                         PlatformTransactionManager transactionManager,
+                         AuditTrail auditTrail) {
+        this.signupWriter = signupWriter;
+        this.passwordHashingService = passwordHashingService;
+        this.registeredEmailFilter = registeredEmailFilter;
+        this.cacheManager = cacheManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.auditTrail = auditTrail;
+    }
+
+    public SignupResult signup(SignupRequest request) {
+        List<SignupResult> created = signupAll(List.of(request)).created();
+        if (created.isEmpty()) {
+            throw new UserAlreadyExistsException(request.email());
+        }
+        return created.getFirst();
+    }
+
+    /**
+     * Signs up every request whose email is not registered yet. Existing emails are skipped and
+     * reported per entry; repeats within the batch are signed up once.
+     */
+    public BulkSignupResult signupAll(List<SignupRequest> requests) {
+        Map<String, SignupRequest> byEmail = new LinkedHashMap<>();
+        requests.forEach(request -> byEmail.putIfAbsent(request.email(), request));
+
+        List<String> candidates = byEmail.keySet().stream()
+                .filter(registeredEmailFilter::mightContain)
+                .toList();
+        Set<String> existing = signupWriter.findExistingEmails(candidates);
+        List<String> alreadyRegistered = new ArrayList<>(existing);
+        existing.forEach(byEmail::remove);
+        if (byEmail.isEmpty()) {
+            return new BulkSignupResult(List.of(), alreadyRegistered);
+        }
+
+        List<NewSignup> signups = new ArrayList<>(byEmail.size());
+        byEmail.values().forEach(request -> signups.add(new NewSignup(
+                request.email(), passwordHashingService.encode(request.password()), request.name())));
+
+        // Announced before the insert: an early add can only cause a false positive
+        signups.forEach(signup -> registeredEmailFilter.add(signup.email()));
+
+        List<SignupResult> results = transactionTemplate.execute(status -> signupWriter.insertAll(signups));
+        if (results.size() < signups.size()) {
+            // Lost a race with a concurrent signup between the check and the insert
+            Set<String> created = new HashSet<>();
+            results.forEach(result -> created.add(result.email()));
+            signups.stream()
+                    .map(NewSignup::email)
+                    .filter(email -> !created.contains(email))
+                    .forEach(alreadyRegistered::add);
+        }
+        if (!alreadyRegistered.isEmpty()) {
+            log.info("Skipped {} signups for already registered emails", alreadyRegistered.size());
+        }
+
+        evictNegativeLookups(signups);
+        // JDBC writes bypass the Hibernate audit listener
+        results.forEach(result -> {
+            auditTrail.record(AuditEvent.of(AuditAction.CREATE, "User", result.userId(), null));
+            auditTrail.record(AuditEvent.of(AuditAction.CREATE, "Workspace", result.workspaceId(), null));
+            result.roleIds().forEach(roleId ->
+                    auditTrail.record(AuditEvent.of(AuditAction.CREATE, "WorkspaceRole", roleId, null)));
+            auditTrail.record(AuditEvent.of(AuditAction.CREATE, "WorkspaceMembership", result.membershipId(), null));
+        });
+        log.info("Signed up {} users", results.size());
+        return new BulkSignupResult(results, alreadyRegistered);
+    }
+
+    private void evictNegativeLookups(List<NewSignup> signups) {
+        Cache users = cacheManager.getCache("users");
+        Cache loginBundles = cacheManager.getCache(UserService.LOGIN_BUNDLES_CACHE);
+        for (NewSignup signup : signups) {
+            String key = "email:" + signup.email();
+            if (users != null) {
+                users.evict(key);
+            }
+            if (loginBundles != null) {
+                loginBundles.evict(key);
+            }
+        }
+    }
+}
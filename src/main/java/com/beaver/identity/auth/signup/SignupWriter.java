@@ -0,0 +1,157 @@
+package com.beaver.identity.auth.signup;
+
+import com.beaver.auth.roles.Role;
+import com.beaver.identity.common.audit.AuditContext;
+import com.beaver.identity.common.entity.UuidV7;
+import com.beaver.identity.common.outbox.Outbox;
+import com.beaver.identity.membership.dto.MembershipChangedEvent;
+import com.beaver.identity.membership.enums.MembershipStatus;
+import com.beaver.identity.workspace.enums.PlanType;
+import com.beaver.identity.workspace.enums.WorkspaceStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Writes users together with their default workspace, roles and owner membership using one JDBC
+ * batch per table, so a whole set of signups costs a fixed number of statements regardless of its
+ * size, including the {@code MembershipAdded} outbox events of the owner memberships. Ids are
+ * generated here as {@link UuidV7}, which lets each user row carry its last workspace in the insert
+ * itself.
+ *
+ * Users are inserted with ON CONFLICT DO NOTHING in a single statement that returns the ids it
+ * wrote, so an email registered concurrently skips only its own signup: its workspace is removed
+ * again and no roles or membership are written for it.
+ *
+ * Must run inside a transaction; nothing here goes through the persistence context or the caches.
+ * Signups are unauthenticated, so rows are attributed to the system user.
+ */
+@Component
+public class SignupWriter {
+
+    private static final String INSERT_WORKSPACE =
+            "INSERT INTO workspaces (id, name, status, plan, created_at, updated_at, updated_by) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_USERS =
+            "INSERT INTO users (id, email, password, name, is_active, last_workspace_id, created_at, updated_at, updated_by) " +
+            "SELECT u.id, u.email, u.password, u.name, true, u.workspace_id, ?, ?, ? " +
+            "FROM unnest(?::uuid[], ?::varchar[], ?::varchar[], ?::varchar[], ?::uuid[]) " +
+            "AS u(id, email, password, name, workspace_id) " +
+            "ON CONFLICT (email) DO NOTHING " +
+            "RETURNING id";
+    private static final String INSERT_ROLE =
+            "INSERT INTO roles (id, workspace_id, role_type, created_at, updated_at, updated_by) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_MEMBERSHIP =
+            "INSERT INTO workspace_memberships (id, user_id, workspace_id, role_id, status, joined_at, created_at, updated_at, updated_by) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Outbox outbox;
+
+    public SignupWriter(JdbcTemplate jdbcTemplate, Outbox outbox) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.outbox = outbox;
+    }
+
+    /**
+     * Returns which of the given emails are already registered, in a single query.
+     */
+    public Set<String> findExistingEmails(List<String> emails) {
+        if (emails.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT email FROM users WHERE email = ANY (?)", String.class,
+                (Object) emails.toArray(String[]::new)));
+    }
+
+    /**
+     * Returns the accounts created, in input order. Signups whose email was registered in the
+     * meantime are left out.
+     */
+    public List<SignupResult> insertAll(List<NewSignup> signups) {
+        if (signups.isEmpty()) {
+            return List.of();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int size = signups.size();
+        UUID[] userIds = new UUID[size];
+        UUID[] workspaceIds = new UUID[size];
+        String[] emails = new String[size];
+        String[] passwords = new String[size];
+        String[] names = new String[size];
+        List<Object[]> workspaces = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            NewSignup signup = signups.get(i);
+            userIds[i] = UuidV7.next();
+            workspaceIds[i] = UuidV7.next();
+            emails[i] = signup.email();
+            passwords[i] = signup.passwordHash();
+            names[i] = signup.name();
+            workspaces.add(new Object[]{
+                    workspaceIds[i], signup.name() + "'s Workspace",
+                    WorkspaceStatus.ACTIVE.name(), PlanType.STARTER.name(), now, now, AuditContext.SYSTEM_USER_ID});
+        }
+
+        // Workspaces first: users reference them through last_workspace_id
+        jdbcTemplate.batchUpdate(INSERT_WORKSPACE, workspaces);
+        Set<UUID> inserted = new HashSet<>(jdbcTemplate.queryForList(INSERT_USERS, UUID.class,
+                now, now, AuditContext.SYSTEM_USER_ID, userIds, emails, passwords, names, workspaceIds));
+
+        List<Object[]> roles = new ArrayList<>(inserted.size() * Role.values().length);
+        List<Object[]> memberships = new ArrayList<>(inserted.size());
+        Map<UUID, MembershipChangedEvent> membershipEvents = new LinkedHashMap<>();
+        List<UUID> orphanedWorkspaces = new ArrayList<>();
+        List<SignupResult> results = new ArrayList<>(inserted.size());
+
+        for (int i = 0; i < size; i++) {
+            if (!inserted.contains(userIds[i])) {
+                orphanedWorkspaces.add(workspaceIds[i]);
+                continue;
+            }
+
+            List<UUID> roleIds = new ArrayList<>(Role.values().length);
+            UUID ownerRoleId = null;
+            for (Role roleType : Role.values()) {
+                UUID roleId = UuidV7.next();
+                if (roleType == Role.OWNER) {
+                    ownerRoleId = roleId;
+                }
+                roleIds.add(roleId);
+                roles.add(new Object[]{roleId, workspaceIds[i], roleType.name(), now, now, AuditContext.SYSTEM_USER_ID});
+            }
+
+            UUID membershipId = UuidV7.next();
+            memberships.add(new Object[]{
+                    membershipId, userIds[i], workspaceIds[i], ownerRoleId,
+                    MembershipStatus.ACTIVE.name(), now, now, now, AuditContext.SYSTEM_USER_ID});
+            membershipEvents.put(membershipId, new MembershipChangedEvent(
+                    membershipId, userIds[i], workspaceIds[i], Role.OWNER, MembershipStatus.ACTIVE));
+            results.add(new SignupResult(userIds[i], emails[i], names[i], workspaceIds[i], Role.OWNER,
+                    roleIds, membershipId));
+        }
+
+        if (!orphanedWorkspaces.isEmpty()) {
+            jdbcTemplate.update("DELETE FROM workspaces WHERE id = ANY (?)",
+                    (Object) orphanedWorkspaces.toArray(UUID[]::new));
+        }
+        if (!results.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_ROLE, roles);
+            jdbcTemplate.batchUpdate(INSERT_MEMBERSHIP, memberships);
+            outbox.appendAll("membership", "MembershipAdded", membershipEvents);
+        }
+
+        return results;
+    }
+}
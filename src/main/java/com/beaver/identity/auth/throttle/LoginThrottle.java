@@ -0,0 +1,232 @@
+package com.beaver.identity.auth.throttle;
+
+import com.beaver.identity.common.exception.TooManyRequestsException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token-bucket throttling of login attempts per email and per client address, checked before the
+ * login touches the database or hashes a password.
+ *
+ * Attempts are accounted in memory, so the check costs no network round trip. Every sync interval
+ * the tokens each node took are pushed to Redis in one pipelined batch of script calls by SHA, and
+ * each node lowers those buckets to the cluster-wide levels Redis returns. Across replicas a key can
+ * therefore overshoot its limit by at most what the nodes admit within one sync interval. Only
+ * buckets that took tokens are synced: a bucket this node did not touch has nothing to push, and
+ * its cluster-wide level is picked up by the sync following its next attempt.
+ */
+@Slf4j
+@Component
+public class LoginThrottle {
+
+    private static final String PREFIX = "throttle:login:";
+
+    /**
+     * Refills the shared bucket by Redis time, takes the tokens a node used since its last sync and
+     * returns the remaining level.
+     */
+    private static final RedisScript<String> SYNC_SCRIPT = new DefaultRedisScript<>(
+            "local capacity = tonumber(ARGV[1]) " +
+            "local per_ms = tonumber(ARGV[2]) " +
+            "local t = redis.call('time') " +
+            "local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000) " +
+            "local state = redis.call('hmget', KEYS[1], 'tokens', 'at') " +
+            "local tokens = tonumber(state[1]) or capacity " +
+            "local at = tonumber(state[2]) or now " +
+            "tokens = math.max(0, math.min(capacity, tokens + (now - at) * per_ms) - tonumber(ARGV[3])) " +
+            "redis.call('hset', KEYS[1], 'tokens', tostring(tokens), 'at', now) " +
+            "redis.call('pexpire', KEYS[1], ARGV[4]) " +
+            "return tostring(tokens)",
+            String.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final boolean enabled;
+    private final Duration syncInterval;
+    private final Limit perEmail;
+    private final Limit perAddress;
+    private final Timer syncTimer;
+    // Pipelined calls cannot fall back to EVAL on NOSCRIPT, so the script is loaded up front and
+    // again after any failed sync, e.g. when Redis restarted and lost its script cache
+    private volatile boolean scriptLoaded;
+
+    private final ScheduledExecutorService syncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "login-throttle-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public LoginThrottle(
+            StringRedisTemplate redisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${login.throttle.enabled:true}") boolean enabled,
+            @Value("${login.throttle.sync-interval:PT1S}") Duration syncInterval,
+            @Value("${login.throttle.max-tracked-keys:100000}") long maxTrackedKeys,
+            @Value("${login.throttle.email.capacity:10}") int emailCapacity,
+            @Value("${login.throttle.email.refill-period:PT10M}") Duration emailRefillPeriod,
+            @Value("${login.throttle.address.capacity:100}") int addressCapacity,
+            @Value("${login.throttle.address.refill-period:PT1M}") Duration addressRefillPeriod) {
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.syncInterval = syncInterval;
+        this.perEmail = new Limit("email", emailCapacity, emailRefillPeriod, maxTrackedKeys, meterRegistry);
+        this.perAddress = new Limit("address", addressCapacity, addressRefillPeriod, maxTrackedKeys, meterRegistry);
+        this.syncTimer = Timer.builder("identity.login.throttle.sync").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Login throttling disabled");
+            return;
+        }
+        syncer.scheduleWithFixedDelay(this::sync, syncInterval.toMillis(), syncInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Takes one attempt from the client address's bucket and then from the email's.
+     *
+     * @throws TooManyRequestsException when either bucket is empty
+     */
+    public void acquire(String email, String clientAddress) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (clientAddress != null) {
+            perAddress.take(clientAddress, now);
+        }
+        if (email != null) {
+            perEmail.take(email.trim().toLowerCase(Locale.ROOT), now);
+        }
+    }
+
+    void sync() {
+        long start = System.nanoTime();
+        List<Pending> pending = new ArrayList<>();
+        try {
+            perAddress.collect(pending);
+            perEmail.collect(pending);
+            if (pending.isEmpty()) {
+                return;
+            }
+            if (!scriptLoaded) {
+                redisTemplate.execute((RedisCallback<String>) connection -> connection.scriptingCommands()
+                        .scriptLoad(SYNC_SCRIPT.getScriptAsString().getBytes(StandardCharsets.UTF_8)));
+                scriptLoaded = true;
+            }
+
+            List<Object> levels = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection commands = (StringRedisConnection) connection;
+                for (Pending entry : pending) {
+                    Limit limit = entry.limit();
+                    commands.evalSha(SYNC_SCRIPT.getSha1(), ReturnType.VALUE, 1,
+                            PREFIX + limit.name + ":" + entry.key(),
+                            Double.toString(limit.capacity),
+                            Double.toString(limit.refillPerNano * 1_000_000),
+                            Integer.toString(entry.taken()),
+                            Long.toString(limit.refillPeriod.toMillis()));
+                }
+                return null;
+            });
+
+            long now = System.nanoTime();
+            for (int i = 0; i < pending.size(); i++) {
+                Object level = levels.get(i);
+                String value = level instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8) : String.valueOf(level);
+                pending.get(i).bucket().reconcile(Double.parseDouble(value), now);
+            }
+        } catch (Exception e) {
+            scriptLoaded = false;
+            // Local limits keep applying; the next sync pushes these tokens again
+            pending.forEach(entry -> entry.bucket().restoreUnsynced(entry.taken()));
+            log.warn("Login throttle sync failed, retrying in {} ms", syncInterval.toMillis(), e);
+        } finally {
+            syncTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        syncer.shutdownNow();
+    }
+
+    private record Pending(Limit limit, String key, TokenBucket bucket, int taken) {
+    }
+
+    private static final class Limit {
+
+        final String name;
+        final double capacity;
+        final double refillPerNano;
+        final Duration refillPeriod;
+        final Cache<String, TokenBucket> buckets;
+        final Counter rejected;
+
+        Limit(String name, int capacity, Duration refillPeriod, long maxTrackedKeys, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.capacity = capacity;
+            this.refillPerNano = (double) capacity / refillPeriod.toNanos();
+            this.refillPeriod = refillPeriod;
+            // An idle bucket is full again after one refill period and can be dropped
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(maxTrackedKeys)
+                    .expireAfterAccess(refillPeriod)
+                    .build();
+            this.rejected = Counter.builder("identity.login.throttled")
+                    .tag("limit", name)
+                    .register(meterRegistry);
+            Gauge.builder("identity.login.throttle.keys", buckets, Cache::estimatedSize)
+                    .tag("limit", name)
+                    .register(meterRegistry);
+        }
+
+        void take(String key, long now) {
+            TokenBucket bucket = buckets.get(key, k -> new TokenBucket(capacity, refillPerNano, now));
+            long waitNanos = bucket.tryTake(now);
+            if (waitNanos > 0) {
+                rejected.increment();
+                throw new TooManyRequestsException("Too many login attempts, try again later",
+                        Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999)));
+            }
+        }
+
+        /**
+         * Buckets that took tokens since the last sync.
+         */
+        void collect(List<Pending> pending) {
+            for (Map.Entry<String, TokenBucket> entry : buckets.asMap().entrySet()) {
+                TokenBucket bucket = entry.getValue();
+                int taken = bucket.drainUnsynced();
+                if (taken > 0) {
+                    pending.add(new Pending(this, entry.getKey(), bucket, taken));
+                }
+            }
+        }
+    }
+}
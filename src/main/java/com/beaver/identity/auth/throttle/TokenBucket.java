@@ -0,0 +1,62 @@
+package com.beaver.identity.auth.throttle;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Token bucket for a single throttled key. Each bucket is its own lock, so attempts against
+ * different keys never contend. Tokens taken since the last sync are counted separately so the
+ * sync can push them to Redis without holding the lock.
+ */
+final class TokenBucket {
+
+    private final double capacity;
+    private final double refillPerNano;
+    private final AtomicInteger unsynced = new AtomicInteger();
+
+    private double tokens;
+    private long refilledAt;
+
+    TokenBucket(double capacity, double refillPerNano, long now) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerNano;
+        this.tokens = capacity;
+        this.refilledAt = now;
+    }
+
+    /**
+     * @return 0 when a token was taken, otherwise the nanoseconds until one will be available
+     */
+    synchronized long tryTake(long now) {
+        refill(now);
+        if (tokens >= 1) {
+            tokens -= 1;
+            unsynced.incrementAndGet();
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / refillPerNano);
+    }
+
+    int drainUnsynced() {
+        return unsynced.getAndSet(0);
+    }
+
+    void restoreUnsynced(int taken) {
+        unsynced.addAndGet(taken);
+    }
+
+    /**
+     * Lowers the local level to the cluster-wide one; never raises it, so tokens taken here after
+     * the sync started are not handed back.
+     */
+    synchronized void reconcile(double clusterTokens, long now) {
+        refill(now);
+        tokens = Math.min(tokens, Math.max(clusterTokens, 0));
+    }
+
+    private void refill(long now) {
+        if (now > refilledAt) {
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * refillPerNano);
+            refilledAt = now;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.beaver.identity.auth.token;
+
+import java.util.UUID;
+
+/**
+ * What a verified refresh token stands for, taken from its server-side record.
+ * {@code familyId} is null for tokens minted before records existed, whose ids come from the
+ * token itself and whose session version counts as 0.
+ */
+public record RefreshClaims(
+        UUID userId,
+        UUID workspaceId,
+        long sessionVersion,
+        UUID familyId
+) {
+
+    public boolean legacy() {
+        return familyId == null;
+    }
+}
@@ -0,0 +1,10 @@
+package com.beaver.identity.auth.token;
+
+import com.beaver.identity.auth.session.SessionPrincipal;
+
+public record RefreshResult(
+        SessionPrincipal principal,
+        String accessToken,
+        String refreshToken
+) {
+}
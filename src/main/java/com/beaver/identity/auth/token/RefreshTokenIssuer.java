@@ -0,0 +1,97 @@
+package com.beaver.identity.auth.token;
+
+import com.beaver.auth.exceptions.InvalidRefreshTokenException;
+import com.beaver.auth.jwt.JwtService;
+import com.beaver.auth.jwt.RefreshToken;
+import com.beaver.identity.auth.session.SessionVersionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Mints refresh tokens through {@code JwtService} and registers each of them with
+ * {@link RefreshTokenRotation}, together with the family and the session version the token
+ * cannot carry itself.
+ *
+ * {@code JwtService} tokens have no unique id: two mints for the same user and workspace within
+ * one second produce the same JWT. A refresh token is therefore the JWT followed by
+ * {@value #HANDLE_SEPARATOR} and a random server-generated handle, which clients treat as part of
+ * the opaque token. Tokens without a handle were minted before records existed.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RefreshTokenIssuer {
+
+    static final char HANDLE_SEPARATOR = '~';
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Base64.Encoder HANDLE_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final JwtService jwtService;
+    private final SessionVersionService sessionVersionService;
+    private final RefreshTokenRotation rotation;
+
+    /**
+     * Mints the first token of a new family.
+     */
+    public String issue(UUID userId, UUID workspaceId) {
+        String token = mint(userId, workspaceId);
+        rotation.start(token, userId, workspaceId, UUID.randomUUID(), sessionVersionService.current(userId));
+        return token;
+    }
+
+    /**
+     * Consumes the presented token and returns its successor in the same family. A token without
+     * a handle is exchanged once for the first token of a new family.
+     */
+    public String rotate(String presentedToken, RefreshClaims claims) {
+        if (claims.legacy()) {
+            if (!rotation.consumeLegacy(presentedToken)) {
+                throw new InvalidRefreshTokenException("Refresh token has already been used");
+            }
+            return issue(claims.userId(), claims.workspaceId());
+        }
+
+        RefreshTokenRotation.Result result =
+                rotation.rotate(presentedToken, claims.familyId(), mint(claims.userId(), claims.workspaceId()));
+        switch (result.outcome()) {
+            case ROTATED, RACED -> {
+                return result.successor();
+            }
+            case REUSED -> {
+                log.warn("Refresh token reuse for user {}, revoked token family {}", claims.userId(), claims.familyId());
+                throw new InvalidRefreshTokenException("Refresh token has already been used");
+            }
+            case REVOKED -> throw new InvalidRefreshTokenException("Refresh token has been revoked");
+            default -> throw new InvalidRefreshTokenException("Refresh token is not recognized");
+        }
+    }
+
+    /**
+     * The JWT part of a refresh token.
+     */
+    static String jwtOf(String refreshToken) {
+        int separator = refreshToken.lastIndexOf(HANDLE_SEPARATOR);
+        return separator >= 0 ? refreshToken.substring(0, separator) : refreshToken;
+    }
+
+    static boolean hasHandle(String refreshToken) {
+        return refreshToken.indexOf(HANDLE_SEPARATOR) >= 0;
+    }
+
+    private String mint(UUID userId, UUID workspaceId) {
+        byte[] handle = new byte[16];
+        RANDOM.nextBytes(handle);
+        return jwtService.generateRefreshToken(
+                RefreshToken.builder()
+                        .userId(userId.toString())
+                        .workspaceId(workspaceId.toString())
+                        .build()
+        ) + HANDLE_SEPARATOR + HANDLE_ENCODER.encodeToString(handle);
+    }
+}
@@ -0,0 +1,178 @@
+package com.beaver.identity.auth.token;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Server-side state of refresh tokens, which makes them one-time-use. Every token has a record,
+ * keyed by the SHA-256 of the token, holding its user, workspace, family and the session version
+ * current at login. Each refresh consumes the presented token and registers its successor in the
+ * same family. Presenting a consumed token means it leaked, so the whole family is revoked.
+ *
+ * A rotation is one script evaluation: family check, state check, mark used and successor
+ * registration happen atomically in a single round trip. The consumed token's record keeps its
+ * successor for a short grace period, so two refreshes racing with the same token (parallel
+ * browser tabs, a retried request) both receive that successor instead of revoking the family.
+ *
+ * Every token carries a random handle (see {@link RefreshTokenIssuer}), so no two tokens share a
+ * record even when {@code JwtService} mints identical JWTs for the same user and workspace within
+ * one second. A record that already exists is never joined or overwritten.
+ *
+ * Tokens without a handle were minted before records existed. They are not trusted for rotation;
+ * {@link #consumeLegacy(String)} lets each of them be exchanged exactly once.
+ */
+@Component
+public class RefreshTokenRotation {
+
+    public enum Outcome {
+        ROTATED,
+        RACED,
+        REUSED,
+        REVOKED,
+        UNKNOWN
+    }
+
+    /**
+     * The outcome and the refresh token to hand out: the new successor, or the one a racing
+     * refresh registered. Null unless {@link Outcome#ROTATED} or {@link Outcome#RACED}.
+     */
+    public record Result(Outcome outcome, String successor) {
+    }
+
+    private static final String TOKEN_PREFIX = "refresh:token:";
+    private static final String FAMILY_PREFIX = "refresh:family:";
+    private static final String LEGACY_PREFIX = "refresh:legacy:";
+
+    private static final RedisScript<Long> START = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[1]) == 1 then return 0 end " +
+            "redis.call('hset', KEYS[1], 'u', ARGV[1], 'w', ARGV[2], 'f', ARGV[3], 'sv', ARGV[4], 's', 'active') " +
+            "redis.call('pexpire', KEYS[1], ARGV[5]) " +
+            "return 1",
+            Long.class);
+
+    /**
+     * KEYS: presented record, successor record, the presented record's grace key, family
+     * revocation marker. ARGV: successor token, validity, grace period (both in milliseconds).
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final RedisScript<List> ROTATE = new DefaultRedisScript<>(
+            "local record = redis.call('hmget', KEYS[1], 'u', 'w', 'f', 'sv', 's') " +
+            "if not record[1] then return {'UNKNOWN'} end " +
+            "if redis.call('exists', KEYS[4]) == 1 then return {'REVOKED'} end " +
+            "if record[5] ~= 'active' then " +
+            "  local raced = redis.call('get', KEYS[3]) " +
+            "  if raced then return {'RACED', raced} end " +
+            "  redis.call('set', KEYS[4], '1', 'PX', ARGV[2]) " +
+            "  return {'REUSED'} " +
+            "end " +
+            "if redis.call('exists', KEYS[2]) == 1 then return redis.error_reply('successor already has a record') end " +
+            "redis.call('hset', KEYS[1], 's', 'used') " +
+            "redis.call('set', KEYS[3], ARGV[1], 'PX', ARGV[3]) " +
+            "redis.call('hset', KEYS[2], 'u', record[1], 'w', record[2], 'f', record[3], 'sv', record[4], 's', 'active') " +
+            "redis.call('pexpire', KEYS[2], ARGV[2]) " +
+            "return {'ROTATED', ARGV[1]}",
+            List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final long validityMillis;
+    private final long graceMillis;
+    private final Map<Outcome, Counter> outcomes = new EnumMap<>(Outcome.class);
+
+    public RefreshTokenRotation(
+            StringRedisTemplate redisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${jwt.refreshTokenValidity}") long validityMillis,
+            @Value("${refresh.rotation.grace-period:PT10S}") Duration gracePeriod) {
+        this.redisTemplate = redisTemplate;
+        this.validityMillis = validityMillis;
+        this.graceMillis = gracePeriod.toMillis();
+        for (Outcome outcome : Outcome.values()) {
+            outcomes.put(outcome, Counter.builder("identity.refresh.rotations")
+                    .tag("result", outcome.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Registers the first token of a new family.
+     *
+     * @throws IllegalStateException when the token already has a record
+     */
+    public void start(String token, UUID userId, UUID workspaceId, UUID familyId, long sessionVersion) {
+        Long created = redisTemplate.execute(START, List.of(tokenKey(token)),
+                userId.toString(), workspaceId.toString(), familyId.toString(), Long.toString(sessionVersion),
+                Long.toString(validityMillis));
+        if (created == null || created != 1L) {
+            throw new IllegalStateException("Refresh token already has a record");
+        }
+    }
+
+    /**
+     * The claims recorded for the token, or empty when it has no record.
+     */
+    public Optional<RefreshClaims> find(String token) {
+        List<Object> fields = redisTemplate.opsForHash().multiGet(tokenKey(token), List.of("u", "w", "f", "sv"));
+        if (fields == null || fields.get(0) == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new RefreshClaims(
+                UUID.fromString((String) fields.get(0)),
+                UUID.fromString((String) fields.get(1)),
+                Long.parseLong((String) fields.get(3)),
+                UUID.fromString((String) fields.get(2))));
+    }
+
+    /**
+     * Consumes {@code token}, a member of {@code familyId}, and registers {@code successor} in its
+     * place.
+     */
+    @SuppressWarnings("unchecked")
+    public Result rotate(String token, UUID familyId, String successor) {
+        String key = tokenKey(token);
+        List<Object> reply = redisTemplate.execute(ROTATE,
+                List.of(key, tokenKey(successor), key + ":next", FAMILY_PREFIX + familyId + ":revoked"),
+                successor, Long.toString(validityMillis), Long.toString(graceMillis));
+        Outcome outcome = reply != null && !reply.isEmpty() ? Outcome.valueOf((String) reply.get(0)) : Outcome.UNKNOWN;
+        outcomes.get(outcome).increment();
+        return new Result(outcome, reply != null && reply.size() > 1 ? (String) reply.get(1) : null);
+    }
+
+    /**
+     * Marks a token without a handle as used. Only the first call for a token returns true.
+     */
+    public boolean consumeLegacy(String token) {
+        Boolean first = redisTemplate.opsForValue()
+                .setIfAbsent(LEGACY_PREFIX + digest(token), "1", Duration.ofMillis(validityMillis));
+        return Boolean.TRUE.equals(first);
+    }
+
+    private static String tokenKey(String token) {
+        return TOKEN_PREFIX + digest(token);
+    }
+
+    static String digest(String token) {
+        try {
+            return HexFormat.of().formatHex(
+                    MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.beaver.identity.auth.token;
+
+import com.beaver.auth.exceptions.InvalidRefreshTokenException;
+import com.beaver.auth.jwt.JwtService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Verifies a refresh token and resolves what it stands for. Signature, expiry and token type are
+ * checked by {@code JwtService}, so key derivation and claim names stay the library's. The
+ * user, workspace, family and session version come from the token's record in
+ * {@link RefreshTokenRotation}.
+ *
+ * A token with a handle but no record has expired or was never issued, and is rejected. Tokens
+ * without a handle were minted before records existed. They are only accepted until
+ * {@code refresh.legacy.accept-until}, which is unset (reject) by default, and each of them can
+ * be exchanged once. Their ids are read from the payload {@code JwtService} has just validated,
+ * rather than parsing and verifying the token again for every claim.
+ */
+@Slf4j
+@Component
+public class RefreshTokenVerifier {
+
+    // Claim names JwtService writes into refresh tokens
+    private static final String USER_ID_CLAIM = "userId";
+    private static final String WORKSPACE_ID_CLAIM = "workspaceId";
+
+    private final JwtService jwtService;
+    private final RefreshTokenRotation rotation;
+    private final ObjectMapper objectMapper;
+    private final Instant legacyAcceptedUntil;
+    private final Clock clock;
+
+    public RefreshTokenVerifier(
+            JwtService jwtService,
+            RefreshTokenRotation rotation,
+            ObjectMapper objectMapper,
+            @Value("${refresh.legacy.accept-until:}") String legacyAcceptedUntil) {
+        this(jwtService, rotation, objectMapper,
+                StringUtils.hasText(legacyAcceptedUntil) ? Instant.parse(legacyAcceptedUntil) : Instant.MIN,
+                Clock.systemUTC());
+    }
+
+    RefreshTokenVerifier(JwtService jwtService, RefreshTokenRotation rotation, ObjectMapper objectMapper,
+                         Instant legacyAcceptedUntil, Clock clock) {
+        this.jwtService = jwtService;
+        this.rotation = rotation;
+        this.objectMapper = objectMapper;
+        this.legacyAcceptedUntil = legacyAcceptedUntil;
+        this.clock = clock;
+    }
+
+    public RefreshClaims verify(String token) {
+        String jwt = RefreshTokenIssuer.jwtOf(token);
+        Object valid;
+        try {
+            valid = jwtService.validateRefreshToken(jwt).block();
+        } catch (InvalidRefreshTokenException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            log.debug("Rejected refresh token: {}", e.getMessage());
+            throw new InvalidRefreshTokenException("Invalid refresh token");
+        }
+        if (Boolean.FALSE.equals(valid)) {
+            throw new InvalidRefreshTokenException("Invalid refresh token");
+        }
+
+        if (RefreshTokenIssuer.hasHandle(token)) {
+            return rotation.find(token)
+                    .orElseThrow(() -> new InvalidRefreshTokenException("Refresh token is not recognized"));
+        }
+
+        if (!clock.instant().isBefore(legacyAcceptedUntil)) {
+            throw new InvalidRefreshTokenException("Refresh token is not recognized");
+        }
+        return legacyClaims(jwt);
+    }
+
+    private RefreshClaims legacyClaims(String jwt) {
+        try {
+            JsonNode payload = objectMapper.readTree(Base64.getUrlDecoder().decode(jwt.split("\\.")[1]));
+            JsonNode userId = payload.hasNonNull(USER_ID_CLAIM) ? payload.get(USER_ID_CLAIM) : payload.get("sub");
+            return new RefreshClaims(
+                    UUID.fromString(userId.asText()),
+                    UUID.fromString(payload.get(WORKSPACE_ID_CLAIM).asText()),
+                    0L,
+                    null);
+        } catch (IOException | RuntimeException e) {
+            throw new InvalidRefreshTokenException("Refresh token is missing required claims");
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.beaver.identity.auth.token;
+
+import com.beaver.auth.exceptions.AuthenticationFailedException;
+import com.beaver.auth.exceptions.InvalidRefreshTokenException;
+import com.beaver.auth.jwt.AccessToken;
+import com.beaver.auth.jwt.JwtService;
+import com.beaver.identity.auth.session.SessionPrincipal;
+import com.beaver.identity.auth.session.SessionPrincipalService;
+import com.beaver.identity.auth.session.SessionVersionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Turns a refresh token into a new access token and its successor refresh token: one signature
+ * check, one record lookup, one in-process session version check, one principal lookup, one
+ * rotation script round trip, two mints.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TokenRefreshService {
+
+    private final RefreshTokenVerifier refreshTokenVerifier;
+    private final SessionPrincipalService sessionPrincipalService;
+    private final SessionVersionService sessionVersionService;
+    private final RefreshTokenIssuer refreshTokenIssuer;
+    private final JwtService jwtService;
+
+    public RefreshResult refresh(String refreshToken) {
+        RefreshClaims claims = refreshTokenVerifier.verify(refreshToken);
+        return mint(lookup(claims), refreshTokenIssuer.rotate(refreshToken, claims));
+    }
+
+    private SessionPrincipal lookup(RefreshClaims claims) {
+        if (claims.sessionVersion() < sessionVersionService.current(claims.userId())) {
+            throw new InvalidRefreshTokenException("Session has been revoked");
+        }
+        return sessionPrincipalService.findPrincipal(claims.userId(), claims.workspaceId())
+                .orElseThrow(() -> new AuthenticationFailedException("User has no memberships to that workspace"));
+    }
+
+    private RefreshResult mint(SessionPrincipal principal, String refreshToken) {
+        String accessToken = jwtService.generateAccessToken(
+                AccessToken.builder()
+                        .userId(principal.userId().toString())
+                        .email(principal.email())
+                        .name(principal.name())
+                        .workspaceId(principal.workspaceId().toString())
+                        .role(principal.role().name())
+                        .build()
+        );
+        return new RefreshResult(principal, accessToken, refreshToken);
+    }
+}
@@ -0,0 +1,27 @@
+package com.beaver.identity.authorization;
+
+import com.beaver.identity.authorization.dto.AuthorizationRequest;
+import com.beaver.identity.authorization.dto.AuthorizationResponse;
+import com.beaver.identity.common.security.InternalOnly;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Batch authorization checks for the gateway and other services, not for end users.
+ */
+@RestController
+@InternalOnly
+@RequiredArgsConstructor
+@RequestMapping("/authorization")
+public class AuthorizationController {
+
+    private final AuthorizationService authorizationService;
+
+    @PostMapping(value = "/decisions", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<AuthorizationResponse> decide(@Valid @RequestBody AuthorizationRequest request) {
+        return ResponseEntity.ok(new AuthorizationResponse(authorizationService.decide(request.checks())));
+    }
+}
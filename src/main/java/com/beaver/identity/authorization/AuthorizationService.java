@@ -0,0 +1,40 @@
+package com.beaver.identity.authorization;
+
+import com.beaver.auth.roles.Role;
+import com.beaver.identity.authorization.dto.AuthorizationCheck;
+import com.beaver.identity.authorization.dto.AuthorizationDecision;
+import com.beaver.identity.membership.MembershipService;
+import com.beaver.identity.membership.dto.MembershipKey;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Answers {@code @RequiresRole}-style questions for many (user, workspace, role) tuples at once.
+ * Roles come from the in-memory membership index, or from the membership cache while the index is
+ * unavailable, in which case whatever the cache misses is loaded with one query for the whole batch.
+ */
+@Service
+@RequiredArgsConstructor
+public class AuthorizationService {
+
+    private final MembershipService membershipService;
+
+    public List<AuthorizationDecision> decide(List<AuthorizationCheck> checks) {
+        Map<MembershipKey, Optional<Role>> roles = membershipService.findRoles(
+                checks.stream()
+                        .map(check -> new MembershipKey(check.userId(), check.workspaceId()))
+                        .toList());
+
+        return checks.stream()
+                .map(check -> {
+                    Role granted = roles.get(new MembershipKey(check.userId(), check.workspaceId())).orElse(null);
+                    return new AuthorizationDecision(check.userId(), check.workspaceId(), check.role(),
+                            granted, granted != null && RoleHierarchy.satisfies(granted, check.role()));
+                })
+                .toList();
+    }
+}
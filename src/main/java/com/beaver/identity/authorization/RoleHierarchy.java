@@ -0,0 +1,29 @@
+package com.beaver.identity.authorization;
+
+import com.beaver.auth.roles.Role;
+
+/**
+ * Explicit ranking of workspace roles, OWNER > ADMIN > WRITE > READ. Ranks are spelled out rather
+ * than taken from {@link Role#ordinal()} so reordering the enum cannot change who is allowed what.
+ */
+public final class RoleHierarchy {
+
+    private RoleHierarchy() {
+    }
+
+    public static int rank(Role role) {
+        return switch (role) {
+            case OWNER -> 4;
+            case ADMIN -> 3;
+            case WRITE -> 2;
+            case READ -> 1;
+        };
+    }
+
+    /**
+     * Whether holding {@code held} grants everything {@code required} does.
+     */
+    public static boolean satisfies(Role held, Role required) {
+        return rank(held) >= rank(required);
+    }
+}
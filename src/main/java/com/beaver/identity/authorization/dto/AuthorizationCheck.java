@@ -0,0 +1,17 @@
+package com.beaver.identity.authorization.dto;
+
+import com.beaver.auth.roles.Role;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.UUID;
+
+public record AuthorizationCheck(
+        @NotNull(message = "User id is required")
+        UUID userId,
+
+        @NotNull(message = "Workspace id is required")
+        UUID workspaceId,
+
+        @NotNull(message = "Role is required")
+        Role role
+) {}
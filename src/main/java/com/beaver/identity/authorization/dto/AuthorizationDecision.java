@@ -0,0 +1,17 @@
+package com.beaver.identity.authorization.dto;
+
+import com.beaver.auth.roles.Role;
+
+import java.util.UUID;
+
+/**
+ * Outcome of one check. {@code grantedRole} is the role actually held, or null when the user is
+ * not an active member of the workspace.
+ */
+public record AuthorizationDecision(
+        UUID userId,
+        UUID workspaceId,
+        Role requiredRole,
+        Role grantedRole,
+        boolean allowed
+) {}
@@ -0,0 +1,13 @@
+package com.beaver.identity.authorization.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record AuthorizationRequest(
+        @NotEmpty(message = "At least one check is required")
+        @Size(max = 1000, message = "At most 1000 checks per request")
+        List<@Valid AuthorizationCheck> checks
+) {}
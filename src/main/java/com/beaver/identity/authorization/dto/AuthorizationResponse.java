@@ -0,0 +1,10 @@
+package com.beaver.identity.authorization.dto;
+
+import java.util.List;
+
+/**
+ * Decisions in the same order as the submitted checks.
+ */
+public record AuthorizationResponse(
+        List<AuthorizationDecision> decisions
+) {}
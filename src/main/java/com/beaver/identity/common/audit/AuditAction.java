@@ -0,0 +1,7 @@
+package com.beaver.identity.common.audit;
+
+public enum AuditAction {
+    CREATE,
+    UPDATE,
+    DELETE
+}
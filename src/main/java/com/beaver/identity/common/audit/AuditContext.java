@@ -0,0 +1,29 @@
+package com.beaver.identity.common.audit;
+
+import java.util.UUID;
+
+/**
+ * Who is acting in the current request. Resolved once per request by {@link AuditContextFilter}
+ * and read by entity callbacks and the audit trail; work outside a request is attributed to the
+ * system user.
+ */
+public record AuditContext(UUID actorId, String requestId, String clientIp) {
+
+    public static final UUID SYSTEM_USER_ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+    private static final AuditContext SYSTEM = new AuditContext(SYSTEM_USER_ID, null, null);
+    private static final ThreadLocal<AuditContext> CURRENT = new ThreadLocal<>();
+
+    public static AuditContext current() {
+        AuditContext context = CURRENT.get();
+        return context != null ? context : SYSTEM;
+    }
+
+    static void set(AuditContext context) {
+        CURRENT.set(context);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,61 @@
+package com.beaver.identity.common.audit;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Resolves the {@link AuditContext} from the gateway headers once per request. The client address
+ * is the servlet's remote address, which the container takes from X-Forwarded-For only when the
+ * connection comes from a trusted proxy.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class AuditContextFilter extends OncePerRequestFilter {
+
+    static final String USER_ID_HEADER = "X-User-Id";
+    static final String REQUEST_ID_HEADER = "X-Request-Id";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        AuditContext.set(new AuditContext(actorId(request), requestId(request), request.getRemoteAddr()));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            AuditContext.clear();
+        }
+    }
+
+    private static UUID actorId(HttpServletRequest request) {
+        String userId = request.getHeader(USER_ID_HEADER);
+        if (userId == null || userId.isBlank()) {
+            return AuditContext.SYSTEM_USER_ID;
+        }
+        try {
+            return UUID.fromString(userId);
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring malformed {} header", USER_ID_HEADER);
+            return AuditContext.SYSTEM_USER_ID;
+        }
+    }
+
+    private static String requestId(HttpServletRequest request) {
+        String requestId = request.getHeader(REQUEST_ID_HEADER);
+        return requestId != null && !requestId.isBlank() ? truncate(requestId) : UUID.randomUUID().toString();
+    }
+
+    private static String truncate(String value) {
+        return value.length() > 64 ? value.substring(0, 64) : value;
+    }
+}
@@ -0,0 +1,29 @@
+package com.beaver.identity.common.audit;
+
+import com.beaver.identity.common.entity.UuidV7;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One committed change: who did it, to which row, and which properties changed. Values are never
+ * recorded, only property names.
+ */
+public record AuditEvent(
+        UUID id,
+        Instant occurredAt,
+        UUID actorId,
+        AuditAction action,
+        String entityType,
+        UUID entityId,
+        List<String> changedProperties,
+        String requestId,
+        String clientIp) {
+
+    public static AuditEvent of(AuditAction action, String entityType, UUID entityId, List<String> changedProperties) {
+        AuditContext context = AuditContext.current();
+        return new AuditEvent(UuidV7.next(), Instant.now(), context.actorId(), action, entityType, entityId,
+                changedProperties, context.requestId(), context.clientIp());
+    }
+}
@@ -0,0 +1,96 @@
+package com.beaver.identity.common.audit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Turns committed Hibernate inserts, updates and deletes into audit events. Runs after commit, so
+ * rolled back changes are never audited and the writing transaction is not slowed down.
+ */
+@Component
+@RequiredArgsConstructor
+public class AuditEventListener implements
+        PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final AuditTrail auditTrail;
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        record(AuditAction.CREATE, event.getPersister(), event.getId(), null);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        record(AuditAction.UPDATE, event.getPersister(), event.getId(), changedProperties(event));
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        record(AuditAction.DELETE, event.getPersister(), event.getId(), null);
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return true;
+    }
+
+    private void record(AuditAction action, EntityPersister persister, Object id, List<String> changedProperties) {
+        auditTrail.record(AuditEvent.of(
+                action,
+                persister.getMappedClass().getSimpleName(),
+                id instanceof UUID uuid ? uuid : null,
+                changedProperties));
+    }
+
+    private static List<String> changedProperties(PostUpdateEvent event) {
+        int[] dirty = event.getDirtyProperties();
+        if (dirty == null) {
+            return null;
+        }
+        String[] names = event.getPersister().getPropertyNames();
+        List<String> changed = new ArrayList<>(dirty.length);
+        for (int index : dirty) {
+            changed.add(names[index]);
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,142 @@
+package com.beaver.identity.common.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Array;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffers audit events in a bounded queue and appends them to {@code audit_log} in batches from a
+ * single background thread, so recording an event never waits on the database.
+ *
+ * When the queue is full the event is dropped and counted rather than blocking the caller; a
+ * growing {@code identity.audit.events{result=dropped}} means the writer cannot keep up.
+ */
+@Slf4j
+@Component
+public class AuditTrail {
+
+    private static final String INSERT =
+            "INSERT INTO audit_log (id, occurred_at, actor_id, action, entity_type, entity_id, " +
+            "changed_properties, request_id, client_ip) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<AuditEvent> queue;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Thread writer;
+
+    private volatile boolean running = true;
+
+    private final Counter enqueued;
+    private final Counter dropped;
+    private final Counter written;
+    private final Counter failed;
+    private final Timer flushTimer;
+
+    public AuditTrail(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${audit.queue-capacity:10000}") int queueCapacity,
+            @Value("${audit.batch-size:500}") int batchSize,
+            @Value("${audit.flush-interval:PT1S}") Duration flushInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+
+        Gauge.builder("identity.audit.queue.depth", queue, BlockingQueue::size)
+                .register(meterRegistry);
+        Gauge.builder("identity.audit.queue.remaining", queue, BlockingQueue::remainingCapacity)
+                .register(meterRegistry);
+        this.enqueued = counter(meterRegistry, "enqueued");
+        this.dropped = counter(meterRegistry, "dropped");
+        this.written = counter(meterRegistry, "written");
+        this.failed = counter(meterRegistry, "failed");
+        this.flushTimer = Timer.builder("identity.audit.flush").register(meterRegistry);
+
+        this.writer = new Thread(this::run, "audit-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    private static Counter counter(MeterRegistry registry, String result) {
+        return Counter.builder("identity.audit.events")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    public void record(AuditEvent event) {
+        if (queue.offer(event)) {
+            enqueued.increment();
+        } else {
+            dropped.increment();
+            log.warn("Audit queue full, dropping {} of {} {}", event.action(), event.entityType(), event.entityId());
+        }
+    }
+
+    private void run() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                AuditEvent first = queue.poll(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                // Woken up by shutdown; the loop drains whatever is left
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<AuditEvent> batch) {
+        long start = System.nanoTime();
+        try {
+            jdbcTemplate.batchUpdate(INSERT, batch, batch.size(), (statement, event) -> {
+                statement.setObject(1, event.id());
+                statement.setTimestamp(2, Timestamp.from(event.occurredAt()));
+                statement.setObject(3, event.actorId());
+                statement.setString(4, event.action().name());
+                statement.setString(5, event.entityType());
+                statement.setObject(6, event.entityId());
+                Array properties = event.changedProperties() == null ? null
+                        : statement.getConnection().createArrayOf("text", event.changedProperties().toArray());
+                statement.setArray(7, properties);
+                statement.setString(8, event.requestId());
+                statement.setString(9, event.clientIp());
+            });
+            written.increment(batch.size());
+        } catch (Exception e) {
+            failed.increment(batch.size());
+            log.error("Failed to write {} audit events", batch.size(), e);
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+}
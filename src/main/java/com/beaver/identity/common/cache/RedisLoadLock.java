@@ -0,0 +1,68 @@
+package com.beaver.identity.common.cache;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Short-lived Redis lock that lets a single node reload an expired entry while the other nodes
+ * poll Redis for its result. The lock expires on its own, so a node that dies mid-load only delays
+ * the others by the lock TTL.
+ */
+class RedisLoadLock {
+
+    private static final String PREFIX = "cache:load-lock:";
+
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration ttl;
+    private final Duration pollInterval;
+    private final Duration maxWait;
+
+    RedisLoadLock(StringRedisTemplate redisTemplate, Duration ttl, Duration pollInterval, Duration maxWait) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+        this.pollInterval = pollInterval;
+        this.maxWait = maxWait.compareTo(ttl) < 0 ? maxWait : ttl;
+    }
+
+    Duration ttl() {
+        return ttl;
+    }
+
+    /**
+     * How long a waiter polls for another node's result before loading itself; never more than
+     * the lock TTL.
+     */
+    Duration maxWait() {
+        return maxWait;
+    }
+
+    Duration pollInterval() {
+        return pollInterval;
+    }
+
+    /**
+     * Returns the owner token when the lock was acquired, or {@code null} when another node holds it.
+     */
+    String tryAcquire(String cacheName, Object key) {
+        String token = UUID.randomUUID().toString();
+        Boolean acquired = redisTemplate.opsForValue().setIfAbsent(lockKey(cacheName, key), token, ttl);
+        return Boolean.TRUE.equals(acquired) ? token : null;
+    }
+
+    void release(String cacheName, Object key, String token) {
+        redisTemplate.execute(RELEASE, List.of(lockKey(cacheName, key)), token);
+    }
+
+    private static String lockKey(String cacheName, Object key) {
+        return PREFIX + cacheName + ":" + key;
+    }
+}
@@ -0,0 +1,224 @@
+package com.beaver.identity.common.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Cache that keeps a bounded in-process copy (L1) of the entries held in Redis (L2).
+ * Reads are served from L1 when possible; every write goes through to Redis and is
+ * announced to the other nodes so they drop their local copy. Read-through fills are not
+ * writes: they store what the database already holds, so they are not announced and never
+ * evict the other nodes' fresh copies.
+ */
+public class TwoTierCache implements Cache {
+
+    private final Cache remote;
+    private final com.github.benmanes.caffeine.cache.Cache<Object, ValueWrapper> local;
+    private final TwoTierCacheManager manager;
+    private final SingleFlight singleFlight = new SingleFlight();
+    private final RedisLoadLock loadLock;
+
+    private final Counter l1Hits;
+    private final Counter l1Misses;
+    private final Counter l2Hits;
+    private final Counter l2Misses;
+
+    private final Counter loads;
+    private final Counter collapsedLoads;
+    private final Counter remoteCollapsedLoads;
+
+    TwoTierCache(Cache remote,
+                 com.github.benmanes.caffeine.cache.Cache<Object, ValueWrapper> local,
+                 TwoTierCacheManager manager,
+                 RedisLoadLock loadLock,
+                 MeterRegistry meterRegistry) {
+        this.remote = remote;
+        this.local = local;
+        this.manager = manager;
+        this.loadLock = loadLock;
+        this.l1Hits = counter(meterRegistry, "l1", "hit");
+        this.l1Misses = counter(meterRegistry, "l1", "miss");
+        this.l2Hits = counter(meterRegistry, "l2", "hit");
+        this.l2Misses = counter(meterRegistry, "l2", "miss");
+        this.loads = loadCounter(meterRegistry, "loaded");
+        this.collapsedLoads = loadCounter(meterRegistry, "collapsed");
+        this.remoteCollapsedLoads = loadCounter(meterRegistry, "collapsed_remote");
+    }
+
+    private Counter loadCounter(MeterRegistry registry, String result) {
+        return Counter.builder("identity.cache.loads")
+                .tag("cache", remote.getName())
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private Counter counter(MeterRegistry registry, String tier, String result) {
+        return Counter.builder("identity.cache.gets")
+                .tag("cache", remote.getName())
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    @Override
+    public String getName() {
+        return remote.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper cached = local.getIfPresent(key);
+        if (cached != null) {
+            l1Hits.increment();
+            return cached;
+        }
+        l1Misses.increment();
+
+        ValueWrapper loaded = remote.get(key);
+        if (loaded == null) {
+            l2Misses.increment();
+            return null;
+        }
+        l2Hits.increment();
+        local.put(key, loaded);
+        return loaded;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                    "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    /**
+     * Read-through used by {@code @Cacheable(sync = true)}. Concurrent misses for the same key on
+     * this node are coalesced into one load; with the load lock enabled, only one node loads and
+     * the others pick its result up from Redis.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+
+        try {
+            SingleFlight.Result result = singleFlight.load(key, () -> loadAndStore(key, valueLoader));
+            if (!result.leader()) {
+                collapsedLoads.increment();
+            }
+            return (T) result.value();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    private Object loadAndStore(Object key, Callable<?> valueLoader) throws Exception {
+        if (loadLock == null) {
+            return store(key, valueLoader.call());
+        }
+
+        String token = loadLock.tryAcquire(getName(), key);
+        if (token != null) {
+            try {
+                return store(key, valueLoader.call());
+            } finally {
+                loadLock.release(getName(), key, token);
+            }
+        }
+
+        // Another node is loading this entry; wait briefly for it to land in Redis, then load it here
+        long deadline = System.nanoTime() + loadLock.maxWait().toNanos();
+        while (System.nanoTime() < deadline) {
+            Thread.sleep(loadLock.pollInterval().toMillis());
+            ValueWrapper loaded = remote.get(key);
+            if (loaded != null) {
+                remoteCollapsedLoads.increment();
+                local.put(key, loaded);
+                return loaded.get();
+            }
+        }
+        return store(key, valueLoader.call());
+    }
+
+    private Object store(Object key, Object value) {
+        loads.increment();
+        remote.put(key, value);
+        local.put(key, new SimpleValueWrapper(value));
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        local.put(key, new SimpleValueWrapper(value));
+        manager.publishEvict(getName(), key);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = remote.putIfAbsent(key, value);
+        local.put(key, existing != null ? existing : new SimpleValueWrapper(value));
+        if (existing == null) {
+            manager.publishEvict(getName(), key);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        local.invalidate(key);
+        manager.publishEvict(getName(), key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean evicted = remote.evictIfPresent(key);
+        local.invalidate(key);
+        manager.publishEvict(getName(), key);
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.invalidateAll();
+        manager.publishClear(getName());
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = remote.invalidate();
+        local.invalidateAll();
+        manager.publishClear(getName());
+        return invalidated;
+    }
+
+    /**
+     * Drops the local copy only, used when another node changed the entry.
+     */
+    void evictLocal(Object key) {
+        local.invalidate(key);
+    }
+
+    void clearLocal() {
+        local.invalidateAll();
+    }
+}
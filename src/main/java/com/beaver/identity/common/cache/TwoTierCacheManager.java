@@ -0,0 +1,131 @@
+package com.beaver.identity.common.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wraps the Redis cache manager with a per-node Caffeine L1. Writes are broadcast over
+ * Redis pub/sub so that every replica drops its local copy of the affected entry.
+ *
+ * Message format: {@code nodeId|E|cacheName|key} for evictions, {@code nodeId|C|cacheName|} for clears.
+ */
+@Slf4j
+public class TwoTierCacheManager implements CacheManager, MessageListener {
+
+    public static final ChannelTopic INVALIDATION_TOPIC = new ChannelTopic("identity:cache:invalidation");
+
+    private static final String EVICT = "E";
+    private static final String CLEAR = "C";
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    private final CacheManager remoteCacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final long localMaximumSize;
+    private final Duration localTtl;
+    private final RedisLoadLock loadLock;
+
+    /**
+     * @param loadLockTtl how long one node may hold the reload of an entry before others load it
+     *                    themselves; zero disables the cross-node lock and only coalesces per node
+     * @param loadLockMaxWait how long a request thread waits for another node's load before loading
+     *                        the entry itself
+     */
+    public TwoTierCacheManager(CacheManager remoteCacheManager,
+                               StringRedisTemplate redisTemplate,
+                               MeterRegistry meterRegistry,
+                               long localMaximumSize,
+                               Duration localTtl,
+                               Duration loadLockTtl,
+                               Duration loadLockPollInterval,
+                               Duration loadLockMaxWait) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.localMaximumSize = localMaximumSize;
+        this.localTtl = localTtl;
+        this.loadLock = loadLockTtl.isZero() || loadLockTtl.isNegative()
+                ? null
+                : new RedisLoadLock(redisTemplate, loadLockTtl, loadLockPollInterval, loadLockMaxWait);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    private TwoTierCache createCache(String name) {
+        Cache remote = remoteCacheManager.getCache(name);
+        if (remote == null) {
+            throw new IllegalStateException("No remote cache configured for: " + name);
+        }
+
+        com.github.benmanes.caffeine.cache.Cache<Object, Cache.ValueWrapper> local = Caffeine.newBuilder()
+                .maximumSize(localMaximumSize)
+                .expireAfterWrite(localTtl)
+                .build();
+
+        return new TwoTierCache(remote, local, this, loadLock, meterRegistry);
+    }
+
+    void publishEvict(String cacheName, Object key) {
+        publish(EVICT, cacheName, String.valueOf(key));
+    }
+
+    void publishClear(String cacheName) {
+        publish(CLEAR, cacheName, "");
+    }
+
+    private void publish(String type, String cacheName, String key) {
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_TOPIC.getTopic(),
+                    String.join("|", nodeId, type, cacheName, key));
+        } catch (Exception e) {
+            // Other nodes fall back to the L1 TTL, so a lost message only widens the staleness window
+            log.warn("Failed to publish cache invalidation for {}:{}", cacheName, key, e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 4);
+        if (parts.length < 4 || nodeId.equals(parts[0])) {
+            return;
+        }
+
+        TwoTierCache cache = caches.get(parts[2]);
+        if (cache == null) {
+            return;
+        }
+
+        if (CLEAR.equals(parts[1])) {
+            log.debug("Clearing local cache {} on remote request", parts[2]);
+            cache.clearLocal();
+        } else {
+            log.debug("Evicting local cache entry {}:{} on remote request", parts[2], parts[3]);
+            cache.evictLocal(parts[3]);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.beaver.identity.common.cache.serialization;
+
+import com.fasterxml.jackson.databind.JavaType;
+
+import java.io.IOException;
+
+/**
+ * Encodes the body of a cache entry. The envelope written by {@link VersionedCacheSerializer}
+ * already carries the value's type, so formats never need to embed class names.
+ */
+public interface CachePayloadFormat {
+
+    String name();
+
+    byte[] write(Object value) throws IOException;
+
+    Object read(byte[] payload, JavaType type) throws IOException;
+}
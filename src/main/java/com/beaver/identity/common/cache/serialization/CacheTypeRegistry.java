@@ -0,0 +1,49 @@
+package com.beaver.identity.common.cache.serialization;
+
+import com.beaver.identity.membership.dto.CachedMemberships;
+import com.beaver.identity.membership.dto.MembershipSnapshot;
+import com.beaver.identity.role.dto.RoleSnapshot;
+import com.beaver.identity.user.dto.LoginBundle;
+import com.beaver.identity.user.dto.UserSnapshot;
+import com.beaver.identity.workspace.dto.WorkspaceSnapshot;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stable one-byte ids for every type stored as a cache value. Ids are part of the cache schema:
+ * never reuse or renumber one without bumping {@link VersionedCacheSerializer#SCHEMA_VERSION}.
+ */
+final class CacheTypeRegistry {
+
+    static final byte UNKNOWN = 0;
+
+    private static final Map<Byte, Class<?>> TYPES_BY_ID = new HashMap<>();
+    private static final Map<Class<?>, Byte> IDS_BY_TYPE = new HashMap<>();
+
+    static {
+        register(1, UserSnapshot.class);
+        register(2, WorkspaceSnapshot.class);
+        register(3, MembershipSnapshot.class);
+        register(4, RoleSnapshot.class);
+        register(5, LoginBundle.class);
+        register(6, CachedMemberships.class);
+    }
+
+    private CacheTypeRegistry() {
+    }
+
+    private static void register(int id, Class<?> type) {
+        TYPES_BY_ID.put((byte) id, type);
+        IDS_BY_TYPE.put(type, (byte) id);
+    }
+
+    static Class<?> typeOf(byte id) {
+        return TYPES_BY_ID.get(id);
+    }
+
+    static byte idOf(Class<?> type) {
+        Byte id = IDS_BY_TYPE.get(type);
+        return id != null ? id : UNKNOWN;
+    }
+}
@@ -0,0 +1,66 @@
+package com.beaver.identity.common.cache.serialization;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+
+/**
+ * Jackson-backed payload format without default typing. Cached values are plain immutable
+ * records, so no Hibernate-aware configuration is needed.
+ */
+public class JacksonPayloadFormat implements CachePayloadFormat {
+
+    private final String name;
+    private final ObjectMapper objectMapper;
+
+    private JacksonPayloadFormat(String name, ObjectMapper objectMapper) {
+        this.name = name;
+        this.objectMapper = configure(objectMapper);
+    }
+
+    public static JacksonPayloadFormat smile() {
+        return new JacksonPayloadFormat("smile", new SmileMapper());
+    }
+
+    public static JacksonPayloadFormat json() {
+        return new JacksonPayloadFormat("json", new JsonMapper());
+    }
+
+    public static JacksonPayloadFormat forName(String name) {
+        return switch (name.toLowerCase()) {
+            case "smile" -> smile();
+            case "json" -> json();
+            default -> throw new IllegalArgumentException("Unknown cache payload format: " + name);
+        };
+    }
+
+    private static ObjectMapper configure(ObjectMapper objectMapper) {
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        objectMapper.configure(MapperFeature.USE_ANNOTATIONS, false);
+        return objectMapper;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public byte[] write(Object value) throws IOException {
+        return objectMapper.writeValueAsBytes(value);
+    }
+
+    @Override
+    public Object read(byte[] payload, JavaType type) throws IOException {
+        return objectMapper.readValue(payload, type);
+    }
+}
@@ -0,0 +1,213 @@
+package com.beaver.identity.common.cache.serialization;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Cache value serializer with a small binary envelope in front of the payload:
+ *
+ * <pre>
+ * byte 0  magic (0xBE)
+ * byte 1  schema version
+ * byte 2  flags (bit 0: payload is deflated)
+ * byte 3  shape (1: single value, 2: list)
+ * byte 4  type id from {@link CacheTypeRegistry} (0 for an empty list)
+ * byte 5+ payload written by the configured {@link CachePayloadFormat}
+ * </pre>
+ *
+ * Entries written with another schema version, or that cannot be decoded, are reported as a cache
+ * miss so the value is simply reloaded and overwritten.
+ */
+@Slf4j
+public class VersionedCacheSerializer implements RedisSerializer<Object> {
+
+    public static final byte SCHEMA_VERSION = 4;
+
+    private static final byte MAGIC = (byte) 0xBE;
+    private static final byte FLAG_COMPRESSED = 0x01;
+    private static final byte SHAPE_SINGLE = 1;
+    private static final byte SHAPE_LIST = 2;
+    private static final int HEADER_LENGTH = 5;
+
+    private final CachePayloadFormat format;
+    private final int compressionThreshold;
+
+    private final DistributionSummary payloadSize;
+    private final Timer encodeTimer;
+    private final Timer decodeTimer;
+    private final Counter discardedVersion;
+    private final Counter discardedCorrupt;
+
+    public VersionedCacheSerializer(String cacheName,
+                                    CachePayloadFormat format,
+                                    int compressionThreshold,
+                                    MeterRegistry meterRegistry) {
+        this.format = format;
+        this.compressionThreshold = compressionThreshold;
+
+        this.payloadSize = DistributionSummary.builder("identity.cache.payload.size")
+                .baseUnit("bytes")
+                .tag("cache", cacheName)
+                .register(meterRegistry);
+        this.encodeTimer = Timer.builder("identity.cache.serialization")
+                .tag("cache", cacheName).tag("operation", "encode")
+                .register(meterRegistry);
+        this.decodeTimer = Timer.builder("identity.cache.serialization")
+                .tag("cache", cacheName).tag("operation", "decode")
+                .register(meterRegistry);
+        this.discardedVersion = Counter.builder("identity.cache.discarded")
+                .tag("cache", cacheName).tag("reason", "version")
+                .register(meterRegistry);
+        this.discardedCorrupt = Counter.builder("identity.cache.discarded")
+                .tag("cache", cacheName).tag("reason", "corrupt")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+
+        long start = System.nanoTime();
+        byte shape;
+        byte typeId;
+        if (value instanceof List<?> list) {
+            shape = SHAPE_LIST;
+            typeId = list.isEmpty() ? CacheTypeRegistry.UNKNOWN : requireTypeId(list.getFirst().getClass());
+        } else {
+            shape = SHAPE_SINGLE;
+            typeId = requireTypeId(value.getClass());
+        }
+
+        byte[] payload;
+        try {
+            payload = format.write(value);
+        } catch (Exception e) {
+            throw new SerializationException("Could not write cache value of type " + value.getClass().getName(), e);
+        }
+
+        byte flags = 0;
+        if (payload.length > compressionThreshold) {
+            payload = deflate(payload);
+            flags |= FLAG_COMPRESSED;
+        }
+
+        byte[] bytes = new byte[HEADER_LENGTH + payload.length];
+        bytes[0] = MAGIC;
+        bytes[1] = SCHEMA_VERSION;
+        bytes[2] = flags;
+        bytes[3] = shape;
+        bytes[4] = typeId;
+        System.arraycopy(payload, 0, bytes, HEADER_LENGTH, payload.length);
+
+        encodeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        payloadSize.record(bytes.length);
+        return bytes;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes.length < HEADER_LENGTH || bytes[0] != MAGIC) {
+            discardedCorrupt.increment();
+            return null;
+        }
+        if (bytes[1] != SCHEMA_VERSION) {
+            discardedVersion.increment();
+            return null;
+        }
+
+        long start = System.nanoTime();
+        try {
+            byte shape = bytes[3];
+            byte typeId = bytes[4];
+            if (shape == SHAPE_LIST && typeId == CacheTypeRegistry.UNKNOWN) {
+                return List.of();
+            }
+
+            Class<?> type = CacheTypeRegistry.typeOf(typeId);
+            if (type == null || (shape != SHAPE_SINGLE && shape != SHAPE_LIST)) {
+                discardedVersion.increment();
+                return null;
+            }
+
+            byte[] payload = Arrays.copyOfRange(bytes, HEADER_LENGTH, bytes.length);
+            if ((bytes[2] & FLAG_COMPRESSED) != 0) {
+                payload = inflate(payload);
+            }
+
+            TypeFactory typeFactory = TypeFactory.defaultInstance();
+            JavaType javaType = shape == SHAPE_LIST
+                    ? typeFactory.constructCollectionType(List.class, type)
+                    : typeFactory.constructType(type);
+            return format.read(payload, javaType);
+        } catch (Exception e) {
+            log.warn("Discarding unreadable cache entry", e);
+            discardedCorrupt.increment();
+            return null;
+        } finally {
+            decodeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static byte requireTypeId(Class<?> type) {
+        byte id = CacheTypeRegistry.idOf(type);
+        if (id == CacheTypeRegistry.UNKNOWN) {
+            throw new SerializationException("Type is not registered for caching: " + type.getName());
+        }
+        return id;
+    }
+
+    private static byte[] deflate(byte[] payload) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(payload);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length / 2);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] payload) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(payload);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length * 3);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int read = inflater.inflate(buffer);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated compressed cache payload");
+                }
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+}
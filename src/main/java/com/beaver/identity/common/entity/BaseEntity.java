@@ -1,11 +1,10 @@
 package com.beaver.identity.common.entity;
 
+import com.beaver.identity.common.audit.AuditContext;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -17,7 +16,7 @@ import java.util.UUID;
 public abstract class BaseEntity {
 
     @Id
-    @GeneratedValue
+    @UuidV7Id
     private UUID id;
 
     @Column(name = "created_at", nullable = false, updatable = false)
@@ -44,17 +43,6 @@ public abstract class BaseEntity {
     }
 
     private UUID getCurrentUserId() {
-        try {
-            ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
-            if (attributes != null) {
-                String userId = attributes.getRequest().getHeader("X-User-Id");
-                if (userId != null && !userId.isEmpty()) {
-                    return UUID.fromString(userId);
-                }
-            }
-        } catch (Exception e) {
-            // Log if needed, but don't fail the entity operation
-        }
-        return UUID.fromString("00000000-0000-0000-0000-000000000001");
+        return AuditContext.current().actorId();
     }
-}
\ No newline at end of file
+}
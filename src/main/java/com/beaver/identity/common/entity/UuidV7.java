@@ -0,0 +1,33 @@
+package com.beaver.identity.common.entity;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RFC 9562 version 7 UUIDs: a 48-bit Unix millisecond timestamp followed by random bits, so keys
+ * generated close together land next to each other in a B-tree index. The 12 bits after the
+ * version hold a per-millisecond counter, which keeps ids from one node strictly increasing even
+ * when the clock stalls or steps back.
+ *
+ * Version 7 ids are ordinary UUIDs and coexist with the random version 4 keys already stored.
+ */
+public final class UuidV7 {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    // Last issued (timestamp << 12 | counter)
+    private static final AtomicLong LAST = new AtomicLong();
+
+    private UuidV7() {
+    }
+
+    public static UUID next() {
+        long now = System.currentTimeMillis();
+        long state = LAST.updateAndGet(previous -> (previous >>> 12) < now ? now << 12 : previous + 1);
+
+        long mostSignificant = ((state >>> 12) << 16) | 0x7000L | (state & 0xFFFL);
+        long leastSignificant = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSignificant, leastSignificant);
+    }
+}
@@ -4,30 +4,61 @@ import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
+/**
+ * Dispatches to the generated MapStruct mappers through a table keyed by (source, target) class.
+ * The table is filled by the {@link MappingContributor}s each domain's mappers implement. Lookups
+ * for a concrete class, including Hibernate proxy subclasses, are resolved once and memoized;
+ * pairs without a generated mapper fall back to ModelMapper.
+ */
 @Component
 public class GenericMapper {
 
+    private record MappingKey(Class<?> source, Class<?> target) {
+    }
+
     private final ModelMapper modelMapper;
 
+    private final Map<MappingKey, Function<Object, Object>> dtoMappings = new HashMap<>();
+    private final Map<MappingKey, BiConsumer<Object, Object>> updateMappings = new HashMap<>();
+
+    private final Map<MappingKey, Function<Object, Object>> resolvedDtoMappings = new ConcurrentHashMap<>();
+    private final Map<MappingKey, BiConsumer<Object, Object>> resolvedUpdateMappings = new ConcurrentHashMap<>();
+
     @Autowired
-    public GenericMapper(ModelMapper modelMapper) {
+    public GenericMapper(ModelMapper modelMapper, List<MappingContributor> contributors) {
         this.modelMapper = modelMapper;
+
+        MappingRegistry registry = new MappingRegistry() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <S, D> void dto(Class<S> source, Class<D> target, Function<S, D> mapping) {
+                dtoMappings.put(new MappingKey(source, target), (Function<Object, Object>) mapping);
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public <S, T> void update(Class<S> source, Class<T> target, BiConsumer<S, T> mapping) {
+                updateMappings.put(new MappingKey(source, target), (BiConsumer<Object, Object>) mapping);
+            }
+        };
+        contributors.forEach(contributor -> contributor.contribute(registry));
     }
 
     /**
      * Convert entity to specified DTO type
      */
+    @SuppressWarnings("unchecked")
     public <D> D toDto(Object entity, Class<D> dtoClass) {
-        // Check if the DTO class has a custom mapping method
-        try {
-            var fromEntityMethod = dtoClass.getMethod("fromEntity", entity.getClass());
-            return (D) fromEntityMethod.invoke(null, entity);
-        } catch (Exception e) {
-            // Fall back to ModelMapper if no custom method exists
-            return modelMapper.map(entity, dtoClass);
-        }
+        return (D) resolvedDtoMappings
+                .computeIfAbsent(new MappingKey(entity.getClass(), dtoClass), this::resolveDtoMapping)
+                .apply(entity);
     }
 
     /**
@@ -43,7 +74,9 @@ public class GenericMapper {
      * Update existing entity with DTO values
      */
     public void updateEntity(Object dto, Object entity) {
-        modelMapper.map(dto, entity);
+        resolvedUpdateMappings
+                .computeIfAbsent(new MappingKey(dto.getClass(), entity.getClass()), this::resolveUpdateMapping)
+                .accept(dto, entity);
     }
 
     /**
@@ -52,4 +85,25 @@ public class GenericMapper {
     public <E> E toEntity(Object dto, Class<E> entityClass) {
         return modelMapper.map(dto, entityClass);
     }
+
+    private Function<Object, Object> resolveDtoMapping(MappingKey key) {
+        // Walk up from proxy subclasses to the mapped entity class
+        for (Class<?> type = key.source(); type != null; type = type.getSuperclass()) {
+            Function<Object, Object> mapping = dtoMappings.get(new MappingKey(type, key.target()));
+            if (mapping != null) {
+                return mapping;
+            }
+        }
+        return entity -> modelMapper.map(entity, key.target());
+    }
+
+    private BiConsumer<Object, Object> resolveUpdateMapping(MappingKey key) {
+        for (Class<?> type = key.target(); type != null; type = type.getSuperclass()) {
+            BiConsumer<Object, Object> mapping = updateMappings.get(new MappingKey(key.source(), type));
+            if (mapping != null) {
+                return mapping;
+            }
+        }
+        return modelMapper::map;
+    }
 }
@@ -0,0 +1,10 @@
+package com.beaver.identity.common.mapper;
+
+/**
+ * Implemented by each domain's mappers to register their generated mappings with
+ * {@link GenericMapper}, so that the common package never depends on a domain.
+ */
+public interface MappingContributor {
+
+    void contribute(MappingRegistry registry);
+}
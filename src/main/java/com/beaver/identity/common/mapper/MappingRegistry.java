@@ -0,0 +1,11 @@
+package com.beaver.identity.common.mapper;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+public interface MappingRegistry {
+
+    <S, D> void dto(Class<S> source, Class<D> target, Function<S, D> mapping);
+
+    <S, T> void update(Class<S> source, Class<T> target, BiConsumer<S, T> mapping);
+}
@@ -0,0 +1,81 @@
+package com.beaver.identity.common.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Records identity change events in {@code outbox_events} as part of the caller's transaction, so
+ * an event exists if and only if the change committed. {@link OutboxRelay} publishes them.
+ *
+ * Every append first bumps the aggregate's row in {@code outbox_aggregates}, which numbers its
+ * events and holds the row lock until commit. Appends for the same aggregate are therefore
+ * serialized: a later event is inserted only after the earlier one committed, so event ids follow
+ * commit order within an aggregate.
+ */
+@Component
+@RequiredArgsConstructor
+public class Outbox {
+
+    private static final String NEXT_VERSION =
+            "INSERT INTO outbox_aggregates (aggregate_id, version) VALUES (?, 1) " +
+            "ON CONFLICT (aggregate_id) DO UPDATE SET version = outbox_aggregates.version + 1 " +
+            "RETURNING version";
+    private static final String NEXT_VERSIONS =
+            "INSERT INTO outbox_aggregates (aggregate_id, version) SELECT unnest(?::uuid[]), 1 " +
+            "ON CONFLICT (aggregate_id) DO UPDATE SET version = outbox_aggregates.version + 1 " +
+            "RETURNING aggregate_id, version";
+    private static final String INSERT =
+            "INSERT INTO outbox_events (aggregate_type, aggregate_id, aggregate_version, event_type, payload) " +
+            "VALUES (?, ?, ?, ?, ?::jsonb)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(String aggregateType, UUID aggregateId, String eventType, Object payload) {
+        String json = serialize(eventType, payload);
+        Long version = jdbcTemplate.queryForObject(NEXT_VERSION, Long.class, aggregateId);
+        jdbcTemplate.update(INSERT, aggregateType, aggregateId, version, eventType, json);
+    }
+
+    /**
+     * Appends one event per aggregate with two statements in all, for writers that create many
+     * aggregates at once. Aggregate ids must be distinct.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendAll(String aggregateType, String eventType, Map<UUID, ?> payloads) {
+        if (payloads.isEmpty()) {
+            return;
+        }
+        Map<UUID, Long> versions = new HashMap<>(payloads.size());
+        jdbcTemplate.query(NEXT_VERSIONS,
+                rs -> {
+                    versions.put(rs.getObject(1, UUID.class), rs.getLong(2));
+                },
+                (Object) payloads.keySet().toArray(UUID[]::new));
+
+        List<Object[]> events = new ArrayList<>(payloads.size());
+        payloads.forEach((aggregateId, payload) -> events.add(new Object[]{
+                aggregateType, aggregateId, versions.get(aggregateId), eventType, serialize(eventType, payload)}));
+        jdbcTemplate.batchUpdate(INSERT, events);
+    }
+
+    private String serialize(String eventType, Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Could not serialize " + eventType + " payload", e);
+        }
+    }
+}
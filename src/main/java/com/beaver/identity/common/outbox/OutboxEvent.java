@@ -0,0 +1,21 @@
+package com.beaver.identity.common.outbox;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * An event read back from the outbox. {@code id} increases with every event, so it orders the
+ * events of one aggregate; {@code aggregateVersion} numbers them 1, 2, ... per aggregate, which lets
+ * consumers drop duplicates and spot gaps. {@code payload} is the JSON written by
+ * {@link Outbox#append}.
+ */
+public record OutboxEvent(
+        long id,
+        String aggregateType,
+        UUID aggregateId,
+        long aggregateVersion,
+        String eventType,
+        String payload,
+        Instant createdAt
+) {
+}
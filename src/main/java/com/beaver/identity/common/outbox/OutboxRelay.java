@@ -0,0 +1,153 @@
+package com.beaver.identity.common.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains {@code outbox_events} into the configured {@link OutboxSink}.
+ *
+ * Each batch is claimed with {@code FOR UPDATE SKIP LOCKED}, published and deleted in one
+ * transaction, so replicas relay disjoint batches in parallel and a crash before commit simply
+ * leaves the batch to be published again. Only the oldest pending event of each aggregate is
+ * eligible, which keeps an aggregate's events in order even when replicas race: its next event
+ * becomes eligible once the batch holding the previous one has committed.
+ *
+ * "Oldest" by id is only safe because {@link Outbox#append} serializes the appends of an aggregate
+ * on its {@code outbox_aggregates} row: an event can never become visible while one with a lower
+ * id for the same aggregate is still uncommitted.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private static final String CLAIM =
+            "SELECT o.id, o.aggregate_type, o.aggregate_id, o.aggregate_version, o.event_type, o.payload::text, o.created_at " +
+            "FROM outbox_events o " +
+            "WHERE NOT EXISTS (SELECT 1 FROM outbox_events earlier " +
+            "                  WHERE earlier.aggregate_id = o.aggregate_id AND earlier.id < o.id) " +
+            "ORDER BY o.id " +
+            "LIMIT ? " +
+            "FOR UPDATE OF o SKIP LOCKED";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxSink sink;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration pollInterval;
+
+    private final ScheduledExecutorService relay = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "outbox-relay");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Counter published;
+    private final Counter failed;
+    private final Timer batchTimer;
+
+    public OutboxRelay(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            OutboxSink sink,
+            MeterRegistry meterRegistry,
+            @Value("${outbox.relay.enabled:true}") boolean enabled,
+            @Value("${outbox.relay.batch-size:200}") int batchSize,
+            @Value("${outbox.relay.poll-interval:PT0.5S}") Duration pollInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sink = sink;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+
+        this.published = counter(meterRegistry, "published");
+        this.failed = counter(meterRegistry, "failed");
+        this.batchTimer = Timer.builder("identity.outbox.relay").register(meterRegistry);
+    }
+
+    private static Counter counter(MeterRegistry registry, String result) {
+        return Counter.builder("identity.outbox.events")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Outbox relay disabled");
+            return;
+        }
+        relay.scheduleWithFixedDelay(this::drain, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Relays batches back to back until the outbox has nothing eligible left.
+     */
+    private void drain() {
+        try {
+            int relayed;
+            do {
+                relayed = relayBatch();
+            } while (relayed > 0 && !relay.isShutdown());
+        } catch (Exception e) {
+            log.error("Outbox relay failed, retrying in {} ms", pollInterval.toMillis(), e);
+        }
+    }
+
+    int relayBatch() {
+        long start = System.nanoTime();
+        Integer relayed = transactionTemplate.execute(status -> {
+            List<OutboxEvent> events = jdbcTemplate.query(CLAIM, (rs, rowNum) -> new OutboxEvent(
+                    rs.getLong(1),
+                    rs.getString(2),
+                    rs.getObject(3, UUID.class),
+                    rs.getLong(4),
+                    rs.getString(5),
+                    rs.getString(6),
+                    rs.getTimestamp(7).toInstant()), batchSize);
+            if (events.isEmpty()) {
+                return 0;
+            }
+
+            try {
+                sink.publish(events);
+            } catch (Exception e) {
+                failed.increment(events.size());
+                throw new IllegalStateException("Could not publish " + events.size() + " outbox events", e);
+            }
+
+            Long[] ids = events.stream().map(OutboxEvent::id).toArray(Long[]::new);
+            jdbcTemplate.update("DELETE FROM outbox_events WHERE id = ANY (?)", (Object) ids);
+            published.increment(events.size());
+            return events.size();
+        });
+        if (relayed != null && relayed > 0) {
+            batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return relayed != null ? relayed : 0;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        relay.shutdown();
+        relay.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
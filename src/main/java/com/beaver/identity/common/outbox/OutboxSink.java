@@ -0,0 +1,13 @@
+package com.beaver.identity.common.outbox;
+
+import java.util.List;
+
+/**
+ * Destination of relayed outbox events. Events arrive in outbox order and must be delivered in that
+ * order; the batch is deleted from the outbox only if this returns normally, so delivery is
+ * at-least-once and consumers should ignore event ids they have already seen.
+ */
+public interface OutboxSink {
+
+    void publish(List<OutboxEvent> events) throws Exception;
+}
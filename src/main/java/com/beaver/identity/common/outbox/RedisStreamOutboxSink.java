@@ -0,0 +1,56 @@
+package com.beaver.identity.common.outbox;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Default sink: appends each event to the Redis Stream {@code identity:events:<aggregateType>} in
+ * one pipelined round trip per batch. One aggregate always maps to the same stream, so its events
+ * are read back in the order they were written. Streams are trimmed to roughly
+ * {@code outbox.redis.max-length} entries.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.sink", havingValue = "redis", matchIfMissing = true)
+public class RedisStreamOutboxSink implements OutboxSink {
+
+    static final String STREAM_PREFIX = "identity:events:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final XAddOptions addOptions;
+
+    public RedisStreamOutboxSink(
+            StringRedisTemplate redisTemplate,
+            @Value("${outbox.redis.max-length:100000}") long maxLength) {
+        this.redisTemplate = redisTemplate;
+        this.addOptions = XAddOptions.maxlen(maxLength).approximateTrimming(true);
+    }
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection commands = (StringRedisConnection) connection;
+            for (OutboxEvent event : events) {
+                Map<String, String> fields = new LinkedHashMap<>();
+                fields.put("eventId", Long.toString(event.id()));
+                fields.put("aggregateType", event.aggregateType());
+                fields.put("aggregateId", event.aggregateId().toString());
+                fields.put("aggregateVersion", Long.toString(event.aggregateVersion()));
+                fields.put("eventType", event.eventType());
+                fields.put("payload", event.payload());
+                fields.put("occurredAt", event.createdAt().toString());
+                commands.xAdd(StreamRecords.string(fields).withStreamKey(STREAM_PREFIX + event.aggregateType()), addOptions);
+            }
+            return null;
+        });
+    }
+}
@@ -0,0 +1,48 @@
+package com.beaver.identity.common.security;
+
+import com.beaver.auth.exceptions.AccessDeniedException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Rejects requests to {@link InternalOnly} handlers unless they carry the gateway secret, which
+ * only the gateway and internal services hold. Unlike {@code @RequiresRole} this does not depend on
+ * the caller's workspace role, since such callers ask on behalf of many users.
+ */
+@Component
+public class InternalCallerInterceptor implements HandlerInterceptor {
+
+    static final String SECRET_HEADER = "X-Gateway-Secret";
+
+    private final byte[] secret;
+
+    public InternalCallerInterceptor(@Value("${gateway.secret}") String secret) {
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod method) || !isInternal(method)) {
+            return true;
+        }
+        String presented = request.getHeader(SECRET_HEADER);
+        if (secret.length == 0 || presented == null
+                || !MessageDigest.isEqual(secret, presented.getBytes(StandardCharsets.UTF_8))) {
+            throw new AccessDeniedException("This endpoint is only available to internal callers");
+        }
+        return true;
+    }
+
+    private static boolean isInternal(HandlerMethod method) {
+        return method.hasMethodAnnotation(InternalOnly.class)
+                || AnnotatedElementUtils.hasAnnotation(method.getBeanType(), InternalOnly.class);
+    }
+}
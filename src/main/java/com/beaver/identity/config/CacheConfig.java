@@ -1,20 +1,27 @@
 package com.beaver.identity.config;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.beaver.identity.common.cache.TwoTierCacheManager;
+import com.beaver.identity.common.cache.serialization.CachePayloadFormat;
+import com.beaver.identity.common.cache.serialization.JacksonPayloadFormat;
+import com.beaver.identity.common.cache.serialization.VersionedCacheSerializer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Configuration
@@ -22,48 +29,61 @@ import java.util.Map;
 public class CacheConfig {
 
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
-        objectMapper.findAndRegisterModules();
-
-        // Configure Jackson to handle Hibernate proxies properly
-        objectMapper.configure(com.fasterxml.jackson.databind.SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
-        objectMapper.configure(com.fasterxml.jackson.databind.MapperFeature.USE_ANNOTATIONS, false);
-
-        // Add Hibernate module to handle lazy loading proxies
-        com.fasterxml.jackson.datatype.hibernate6.Hibernate6Module hibernateModule =
-            new com.fasterxml.jackson.datatype.hibernate6.Hibernate6Module();
-
-        // Configure to disable lazy loading during serialization/deserialization
-        hibernateModule.disable(com.fasterxml.jackson.datatype.hibernate6.Hibernate6Module.Feature.USE_TRANSIENT_ANNOTATION);
-        hibernateModule.enable(com.fasterxml.jackson.datatype.hibernate6.Hibernate6Module.Feature.FORCE_LAZY_LOADING);
-        hibernateModule.enable(com.fasterxml.jackson.datatype.hibernate6.Hibernate6Module.Feature.SERIALIZE_IDENTIFIER_FOR_LAZY_NOT_LOADED_OBJECTS);
-
-        objectMapper.registerModule(hibernateModule);
-
-        objectMapper.activateDefaultTyping(
-            LaissezFaireSubTypeValidator.instance,
-            ObjectMapper.DefaultTyping.NON_FINAL
-        );
+    @Primary
+    public TwoTierCacheManager cacheManager(
+            RedisCacheManager redisCacheManager,
+            StringRedisTemplate redisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${cache.local.maximum-size:10000}") long localMaximumSize,
+            @Value("${cache.local.ttl:PT30S}") Duration localTtl,
+            @Value("${cache.load-lock.ttl:PT0S}") Duration loadLockTtl,
+            @Value("${cache.load-lock.poll-interval:PT0.025S}") Duration loadLockPollInterval,
+            @Value("${cache.load-lock.max-wait:PT0.2S}") Duration loadLockMaxWait) {
+        return new TwoTierCacheManager(redisCacheManager, redisTemplate, meterRegistry,
+                localMaximumSize, localTtl, loadLockTtl, loadLockPollInterval, loadLockMaxWait);
+    }
 
-        GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer(objectMapper);
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+            RedisConnectionFactory connectionFactory,
+            TwoTierCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, TwoTierCacheManager.INVALIDATION_TOPIC);
+        return container;
+    }
 
-        RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(30))
-                .serializeKeysWith(RedisSerializationContext.SerializationPair
-                        .fromSerializer(new StringRedisSerializer()))
-                .serializeValuesWith(RedisSerializationContext.SerializationPair
-                        .fromSerializer(jsonSerializer));
+    @Bean
+    public RedisCacheManager redisCacheManager(
+            RedisConnectionFactory connectionFactory,
+            MeterRegistry meterRegistry,
+            @Value("${cache.serialization.format:smile}") String payloadFormat,
+            @Value("${cache.serialization.compression-threshold:1024}") int compressionThreshold,
+            @Value("${cache.negative-ttl:PT1M}") Duration negativeTtl) {
+        CachePayloadFormat format = JacksonPayloadFormat.forName(payloadFormat);
 
-        // Specific cache configurations for different entity types
+        // Specific cache configurations for different entity types, each with its own serializer metrics
         Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
-        cacheConfigurations.put("users", defaultConfig);
-        cacheConfigurations.put("memberships", defaultConfig);
+        for (String cacheName : List.of("users", "memberships", "login_bundles", "workspaces", "workspace_roles")) {
+            cacheConfigurations.put(cacheName, cacheConfiguration(
+                    new VersionedCacheSerializer(cacheName, format, compressionThreshold, meterRegistry), negativeTtl));
+        }
 
         return RedisCacheManager.builder(connectionFactory)
-                .cacheDefaults(defaultConfig)
+                .cacheDefaults(cacheConfiguration(
+                        new VersionedCacheSerializer("default", format, compressionThreshold, meterRegistry), negativeTtl))
                 .withInitialCacheConfigurations(cacheConfigurations)
                 .build();
     }
+
+    private RedisCacheConfiguration cacheConfiguration(RedisSerializer<Object> valueSerializer, Duration negativeTtl) {
+        Duration ttl = Duration.ofMinutes(30);
+        return RedisCacheConfiguration.defaultCacheConfig()
+                // Empty lookups are cached too, but only briefly
+                .entryTtl((key, value) -> value == null ? negativeTtl : ttl)
+                .serializeKeysWith(RedisSerializationContext.SerializationPair
+                        .fromSerializer(new StringRedisSerializer()))
+                .serializeValuesWith(RedisSerializationContext.SerializationPair
+                        .fromSerializer(valueSerializer));
+    }
 }
@@ -1,15 +1,72 @@
 package com.beaver.identity.config;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+
+@Slf4j
 @Configuration
 public class SecurityConfig {
 
+    private static final String BCRYPT_ID = "bcrypt";
+    private static final int BENCHMARK_SAMPLES = 3;
+
+    /**
+     * BCrypt encoder whose cost is chosen at startup: the highest strength whose median hash time
+     * on this host stays within the configured latency budget. Existing hashes without an
+     * {@code {id}} prefix (all current {@code $2a$10$} rows) are still verified as BCrypt, and
+     * {@link PasswordEncoder#upgradeEncoding(String)} reports them as outdated so they get rehashed.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${password.hash.latency-budget:PT0.25S}") Duration latencyBudget,
+            @Value("${password.hash.min-strength:10}") int minStrength,
+            @Value("${password.hash.max-strength:16}") int maxStrength) {
+        int strength = calibrateStrength(latencyBudget, minStrength, maxStrength);
+
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(
+                BCRYPT_ID, Map.of(BCRYPT_ID, new BCryptPasswordEncoder(strength)));
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder(strength));
+        return encoder;
+    }
+
+    private int calibrateStrength(Duration latencyBudget, int minStrength, int maxStrength) {
+        long budgetNanos = latencyBudget.toNanos();
+        int chosen = minStrength;
+
+        for (int strength = minStrength; strength <= maxStrength; strength++) {
+            long medianNanos = medianHashNanos(new BCryptPasswordEncoder(strength));
+            log.debug("BCrypt strength {} takes {} ms on this host", strength, medianNanos / 1_000_000);
+            if (medianNanos > budgetNanos) {
+                break;
+            }
+            chosen = strength;
+            // Each step doubles the cost, so stop before a single sample would blow the budget twice over
+            if (medianNanos * 2 > budgetNanos) {
+                break;
+            }
+        }
+
+        log.info("Using BCrypt strength {} for a per-hash budget of {} ms", chosen, latencyBudget.toMillis());
+        return chosen;
+    }
+
+    private long medianHashNanos(BCryptPasswordEncoder encoder) {
+        long[] samples = new long[BENCHMARK_SAMPLES];
+        for (int i = 0; i < BENCHMARK_SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode("calibration-password");
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[BENCHMARK_SAMPLES / 2];
     }
 }
@@ -1,26 +1,67 @@
 package com.beaver.identity.membership;
 
+import com.beaver.auth.roles.Role;
+import com.beaver.identity.membership.dto.MemberRow;
+import com.beaver.identity.membership.dto.MembershipSnapshot;
+import com.beaver.identity.membership.dto.PrincipalRow;
+import com.beaver.identity.membership.dto.UserMembershipRow;
 import com.beaver.identity.membership.entity.WorkspaceMembership;
 import com.beaver.identity.membership.enums.MembershipStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface IMembershipRepository extends JpaRepository<WorkspaceMembership, UUID> {
 
-    @Query("SELECT wm FROM WorkspaceMembership wm " +
-           "JOIN FETCH wm.workspace " +
-           "JOIN FETCH wm.role " +
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.beaver.identity.membership.dto.MembershipSnapshot(" +
+           "wm.id, w.id, w.name, r.roleType, wm.status, wm.joinedAt, wm.createdAt, wm.updatedAt, wm.updatedBy) " +
+           "FROM WorkspaceMembership wm " +
+           "JOIN wm.workspace w " +
+           "JOIN wm.role r " +
+           "WHERE wm.user.id = :userId AND wm.status = :status " +
+           "ORDER BY wm.joinedAt, wm.id")
+    Stream<MembershipSnapshot> streamByUserIdAndStatus(
+            @Param("userId") UUID userId,
+            @Param("status") MembershipStatus status,
+            Limit limit);
+
+    @Query("SELECT wm.workspace.id FROM WorkspaceMembership wm " +
            "WHERE wm.user.id = :userId AND wm.status = :status")
-    List<WorkspaceMembership> findByUserIdAndStatus(
+    List<UUID> findWorkspaceIdsByUserIdAndStatus(
             @Param("userId") UUID userId,
-            @Param("status") MembershipStatus status);
+            @Param("status") MembershipStatus status,
+            Limit limit);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.beaver.identity.membership.dto.MembershipSnapshot(" +
+           "wm.id, w.id, w.name, r.roleType, wm.status, wm.joinedAt, wm.createdAt, wm.updatedAt, wm.updatedBy) " +
+           "FROM WorkspaceMembership wm " +
+           "JOIN wm.workspace w " +
+           "JOIN wm.role r " +
+           "WHERE wm.user.id = :userId AND wm.status = :status " +
+           "AND (wm.joinedAt, wm.id) > (:joinedAt, :id) " +
+           "ORDER BY wm.joinedAt, wm.id")
+    Stream<MembershipSnapshot> streamByUserIdAndStatusAfter(
+            @Param("userId") UUID userId,
+            @Param("status") MembershipStatus status,
+            @Param("joinedAt") LocalDateTime joinedAt,
+            @Param("id") UUID id,
+            Limit limit);
 
     @Query("SELECT wm FROM WorkspaceMembership wm " +
            "JOIN FETCH wm.workspace " +
@@ -30,4 +71,60 @@ public interface IMembershipRepository extends JpaRepository<WorkspaceMembership
             @Param("userId") UUID userId,
             @Param("workspaceId") UUID workspaceId,
             @Param("status") MembershipStatus status);
+
+    /**
+     * Superset of the memberships for any combination of the given users and workspaces; callers
+     * keep the pairs they asked for.
+     */
+    @Query("SELECT new com.beaver.identity.membership.dto.UserMembershipRow(" +
+           "wm.user.id, wm.id, w.id, w.name, r.roleType, wm.status, wm.joinedAt, wm.createdAt, wm.updatedAt, wm.updatedBy) " +
+           "FROM WorkspaceMembership wm " +
+           "JOIN wm.workspace w " +
+           "JOIN wm.role r " +
+           "WHERE wm.user.id IN :userIds AND w.id IN :workspaceIds AND wm.status = :status")
+    List<UserMembershipRow> findByUserIdsAndWorkspaceIds(
+            @Param("userIds") Collection<UUID> userIds,
+            @Param("workspaceIds") Collection<UUID> workspaceIds,
+            @Param("status") MembershipStatus status);
+
+    @Query("SELECT new com.beaver.identity.membership.dto.PrincipalRow(u.email, u.name, r.roleType) " +
+           "FROM WorkspaceMembership wm " +
+           "JOIN wm.user u " +
+           "JOIN wm.role r " +
+           "WHERE u.id = :userId AND wm.workspace.id = :workspaceId AND wm.status = :status")
+    Optional<PrincipalRow> findPrincipal(
+            @Param("userId") UUID userId,
+            @Param("workspaceId") UUID workspaceId,
+            @Param("status") MembershipStatus status);
+
+    @Query("SELECT new com.beaver.identity.membership.dto.MemberRow(wm.id, u.id, u.email, u.name, r.roleType, wm.status, wm.joinedAt) " +
+           "FROM WorkspaceMembership wm " +
+           "JOIN wm.user u " +
+           "JOIN wm.role r " +
+           "WHERE wm.workspace.id = :workspaceId " +
+           "AND (:status IS NULL OR wm.status = :status) " +
+           "AND (:role IS NULL OR r.roleType = :role) " +
+           "ORDER BY wm.joinedAt, wm.id")
+    List<MemberRow> findMembers(
+            @Param("workspaceId") UUID workspaceId,
+            @Param("status") MembershipStatus status,
+            @Param("role") Role role,
+            Limit limit);
+
+    @Query("SELECT new com.beaver.identity.membership.dto.MemberRow(wm.id, u.id, u.email, u.name, r.roleType, wm.status, wm.joinedAt) " +
+           "FROM WorkspaceMembership wm " +
+           "JOIN wm.user u " +
+           "JOIN wm.role r " +
+           "WHERE wm.workspace.id = :workspaceId " +
+           "AND (wm.joinedAt, wm.id) > (:joinedAt, :id) " +
+           "AND (:status IS NULL OR wm.status = :status) " +
+           "AND (:role IS NULL OR r.roleType = :role) " +
+           "ORDER BY wm.joinedAt, wm.id")
+    List<MemberRow> findMembersAfter(
+            @Param("workspaceId") UUID workspaceId,
+            @Param("joinedAt") LocalDateTime joinedAt,
+            @Param("id") UUID id,
+            @Param("status") MembershipStatus status,
+            @Param("role") Role role,
+            Limit limit);
 }
@@ -0,0 +1,43 @@
+package com.beaver.identity.membership;
+
+import com.beaver.identity.common.exception.InvalidUserDataException;
+import com.beaver.identity.membership.dto.MemberRow;
+import com.beaver.identity.membership.dto.MembershipSnapshot;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position after the last membership of a page, i.e. its {@code (joined_at, id)} key. Clients only
+ * see the opaque encoded form.
+ */
+record MemberCursor(LocalDateTime joinedAt, UUID id) {
+
+    static MemberCursor after(MemberRow row) {
+        return new MemberCursor(row.joinedAt(), row.membershipId());
+    }
+
+    static MemberCursor after(MembershipSnapshot membership) {
+        return new MemberCursor(membership.joinedAt(), membership.id());
+    }
+
+    String encode() {
+        String raw = joinedAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static MemberCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new MemberCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new InvalidUserDataException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.beaver.identity.membership;
+
+import com.beaver.identity.membership.dto.MembershipKey;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Per-user and per-workspace generations for the membership cache. Cache keys embed the
+ * generations they were built from, so invalidating every entry of a user or of a workspace is a
+ * single write; superseded entries are never read again and simply expire.
+ *
+ * Generations are bumped after the writing transaction commits and are read before the database,
+ * so an entry can never be stored under a generation newer than the data it holds.
+ *
+ * As with principal versions, a bump writes a fresh random generation rather than incrementing,
+ * and generation keys expire after {@code memberships.cache.generation-ttl}, at least twice the
+ * cache entry TTL. Entries expire well before the generation key they were stored under, so a key
+ * that expires and reads as 0 again cannot revive anything still cached.
+ */
+@Component
+public class MembershipGenerations {
+
+    private static final String USER_PREFIX = "memberships:gen:user:";
+    private static final String WORKSPACE_PREFIX = "memberships:gen:workspace:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration generationTtl;
+
+    public MembershipGenerations(
+            StringRedisTemplate redisTemplate,
+            @Value("${memberships.cache.generation-ttl:PT1H}") Duration generationTtl) {
+        this.redisTemplate = redisTemplate;
+        this.generationTtl = generationTtl;
+    }
+
+    /**
+     * Key for the list of a user's active memberships. The list carries its generations inside the
+     * entry (see {@link #userAndWorkspaceGenerations}) rather than in the key.
+     */
+    public String activeListKey(UUID userId) {
+        return "user:" + userId + ":active";
+    }
+
+    /**
+     * Key for a single (user, workspace) membership. Both generations are read in one round trip.
+     */
+    public String userWorkspaceKey(UUID userId, UUID workspaceId) {
+        return userWorkspaceKeys(List.of(new MembershipKey(userId, workspaceId))).getFirst();
+    }
+
+    /**
+     * Keys for many (user, workspace) memberships, in iteration order, with every generation read
+     * in one round trip.
+     */
+    public List<String> userWorkspaceKeys(Collection<MembershipKey> memberships) {
+        if (memberships.isEmpty()) {
+            return List.of();
+        }
+        List<String> generationKeys = new ArrayList<>(memberships.size() * 2);
+        memberships.forEach(membership -> {
+            generationKeys.add(USER_PREFIX + membership.userId());
+            generationKeys.add(WORKSPACE_PREFIX + membership.workspaceId());
+        });
+
+        List<String> values = redisTemplate.opsForValue().multiGet(generationKeys);
+        List<String> keys = new ArrayList<>(memberships.size());
+        int index = 0;
+        for (MembershipKey membership : memberships) {
+            keys.add("user:" + membership.userId() + ":g" + parse(values, index)
+                    + ":workspace:" + membership.workspaceId() + ":g" + parse(values, index + 1));
+            index += 2;
+        }
+        return keys;
+    }
+
+    /**
+     * The user's current generation followed by those of the given workspaces, in iteration order,
+     * read in one round trip.
+     */
+    public List<Long> userAndWorkspaceGenerations(UUID userId, Collection<UUID> workspaceIds) {
+        List<String> keys = new ArrayList<>(workspaceIds.size() + 1);
+        keys.add(USER_PREFIX + userId);
+        workspaceIds.forEach(workspaceId -> keys.add(WORKSPACE_PREFIX + workspaceId));
+
+        List<String> values = redisTemplate.opsForValue().multiGet(keys);
+        List<Long> generations = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            generations.add(parse(values, i));
+        }
+        return generations;
+    }
+
+    /**
+     * Invalidates every cached membership of the user once the current transaction commits.
+     */
+    public void bumpUser(UUID userId) {
+        afterCommit(() -> bump(USER_PREFIX + userId));
+    }
+
+    /**
+     * Invalidates every cached membership in the workspace once the current transaction commits.
+     */
+    public void bumpWorkspace(UUID workspaceId) {
+        afterCommit(() -> bump(WORKSPACE_PREFIX + workspaceId));
+    }
+
+    private void bump(String generationKey) {
+        long generation;
+        do {
+            generation = ThreadLocalRandom.current().nextLong();
+        } while (generation == 0L);
+        redisTemplate.opsForValue().set(generationKey, Long.toString(generation), generationTtl);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static long parse(List<String> values, int index) {
+        return values == null ? 0L : parse(values.get(index));
+    }
+
+    private static long parse(String value) {
+        return value == null ? 0L : Long.parseLong(value);
+    }
+}
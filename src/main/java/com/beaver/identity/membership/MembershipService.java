@@ -1,7 +1,17 @@
 package com.beaver.identity.membership;
 
 import com.beaver.auth.roles.Role;
+import com.beaver.identity.auth.session.SessionPrincipalService;
+import com.beaver.identity.common.outbox.Outbox;
+import com.beaver.identity.membership.dto.CachedMemberships;
+import com.beaver.identity.membership.dto.MemberPage;
+import com.beaver.identity.membership.dto.MemberRow;
+import com.beaver.identity.membership.dto.MembershipChangedEvent;
+import com.beaver.identity.membership.dto.MembershipKey;
+import com.beaver.identity.membership.dto.MembershipPage;
+import com.beaver.identity.membership.dto.MembershipSnapshot;
 import com.beaver.identity.membership.enums.MembershipStatus;
+import com.beaver.identity.membership.index.MembershipIndex;
 import com.beaver.identity.membership.entity.WorkspaceMembership;
 import com.beaver.identity.role.entity.WorkspaceRole;
 import com.beaver.identity.role.service.WorkspaceRoleService;
@@ -9,50 +19,260 @@ import com.beaver.identity.user.entity.User;
 import com.beaver.identity.workspace.entity.Workspace;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @RequiredArgsConstructor
 @Transactional
 @Slf4j
 @Service
-@CacheConfig(cacheNames = "memberships")
+@CacheConfig(cacheNames = MembershipService.MEMBERSHIPS_CACHE)
 public class MembershipService {
 
+    static final String MEMBERSHIPS_CACHE = "memberships";
+
+    /**
+     * Users with more active memberships than this are streamed instead of cached as one list.
+     */
+    static final int CACHED_LIST_MAX_SIZE = 200;
+
     private final IMembershipRepository membershipRepository;
     private final WorkspaceRoleService roleService;
     private final CacheManager cacheManager;
+    private final SessionPrincipalService sessionPrincipalService;
+    private final MembershipGenerations generations;
+    private final MembershipIndex membershipIndex;
+    private final Outbox outbox;
+
+    /**
+     * Returns the user's active memberships from the cache, or empty when the user has more than
+     * {@link #CACHED_LIST_MAX_SIZE} of them; those are never held as one list and must be read with
+     * {@link #streamActiveByUserId} or {@link #findActiveByUserIdPage}.
+     *
+     * The list carries workspace names, so the entry records the user's generation and that of
+     * every workspace it covers, and a hit is validated by reading them all back in one round trip.
+     */
+    @Transactional(readOnly = true)
+    public Optional<List<MembershipSnapshot>> findCachedActiveByUserId(UUID userId) {
+        Cache cache = cacheManager.getCache(MEMBERSHIPS_CACHE);
+        CachedMemberships entry;
+        if (cache == null) {
+            entry = loadActiveByUserId(userId);
+        } else {
+            String key = generations.activeListKey(userId);
+            entry = cache.get(key, () -> loadActiveByUserId(userId));
+            if (!entry.generations().equals(generations.userAndWorkspaceGenerations(userId, entry.workspaceIds()))) {
+                // The user or a listed workspace changed since the entry was stored
+                cache.evict(key);
+                entry = cache.get(key, () -> loadActiveByUserId(userId));
+            }
+        }
+        return entry.oversized() ? Optional.empty() : Optional.of(entry.memberships());
+    }
+
+    /**
+     * Generations are read before the list is loaded, so an entry is never tagged with a
+     * generation newer than its data. The workspace ids come from a cheap id-only query on the
+     * same index; a workspace that only shows up in the list loaded afterwards joined in between
+     * and is tagged with an impossible generation, so the entry fails its next validation.
+     */
+    private CachedMemberships loadActiveByUserId(UUID userId) {
+        List<UUID> workspaceIds = membershipRepository.findWorkspaceIdsByUserIdAndStatus(
+                userId, MembershipStatus.ACTIVE, Limit.of(CACHED_LIST_MAX_SIZE + 1));
+        List<Long> current = generations.userAndWorkspaceGenerations(userId, workspaceIds);
+        if (workspaceIds.size() > CACHED_LIST_MAX_SIZE) {
+            return CachedMemberships.oversizedMarker(current.getFirst());
+        }
+
+        List<MembershipSnapshot> memberships;
+        try (Stream<MembershipSnapshot> rows = membershipRepository.streamByUserIdAndStatus(
+                userId, MembershipStatus.ACTIVE, Limit.of(CACHED_LIST_MAX_SIZE + 1))) {
+            memberships = rows.toList();
+        }
+        if (memberships.size() > CACHED_LIST_MAX_SIZE) {
+            return CachedMemberships.oversizedMarker(-1L);
+        }
+
+        Map<UUID, Long> byWorkspace = new HashMap<>(workspaceIds.size() * 2);
+        for (int i = 0; i < workspaceIds.size(); i++) {
+            byWorkspace.put(workspaceIds.get(i), current.get(i + 1));
+        }
+        List<Long> tagged = new ArrayList<>(memberships.size() + 1);
+        tagged.add(current.getFirst());
+        for (MembershipSnapshot membership : memberships) {
+            tagged.add(byWorkspace.getOrDefault(membership.workspaceId(), -1L));
+        }
+        return new CachedMemberships(memberships, tagged, false);
+    }
+
+    /**
+     * Feeds every active membership of the user to {@code consumer} straight from a database
+     * cursor, so memory stays flat however many workspaces the user belongs to.
+     */
+    @Transactional(readOnly = true)
+    public void streamActiveByUserId(UUID userId, Consumer<MembershipSnapshot> consumer) {
+        try (Stream<MembershipSnapshot> rows = membershipRepository.streamByUserIdAndStatus(
+                userId, MembershipStatus.ACTIVE, Limit.unlimited())) {
+            rows.forEach(consumer);
+        }
+    }
 
     @Transactional(readOnly = true)
-    @Cacheable(key = "'user:' + #userId")
-    public List<WorkspaceMembership> findActiveByUserId(UUID userId) {
-        return membershipRepository.findByUserIdAndStatus(userId, MembershipStatus.ACTIVE);
+    public MembershipPage findActiveByUserIdPage(UUID userId, String cursor, int limit) {
+        // One extra row tells whether another page follows
+        Limit fetch = Limit.of(limit + 1);
+        List<MembershipSnapshot> rows;
+        if (cursor == null || cursor.isBlank()) {
+            try (Stream<MembershipSnapshot> stream = membershipRepository.streamByUserIdAndStatus(
+                    userId, MembershipStatus.ACTIVE, fetch)) {
+                rows = stream.toList();
+            }
+        } else {
+            MemberCursor after = MemberCursor.decode(cursor);
+            try (Stream<MembershipSnapshot> stream = membershipRepository.streamByUserIdAndStatusAfter(
+                    userId, MembershipStatus.ACTIVE, after.joinedAt(), after.id(), fetch)) {
+                rows = stream.toList();
+            }
+        }
+
+        if (rows.size() <= limit) {
+            return new MembershipPage(rows, null);
+        }
+        List<MembershipSnapshot> page = rows.subList(0, limit);
+        return new MembershipPage(List.copyOf(page), MemberCursor.after(page.getLast()).encode());
     }
 
     @Transactional(readOnly = true)
-    @Cacheable(key = "'user:' + #userId + ':workspace:' + #workspaceId")
-    public Optional<WorkspaceMembership> findByUserIdAndWorkspaceId(UUID userId, UUID workspaceId) {
-        return membershipRepository.findByUserIdAndWorkspaceIdAndStatus(userId, workspaceId, MembershipStatus.ACTIVE);
+    @Cacheable(key = "@membershipGenerations.userWorkspaceKey(#userId, #workspaceId)", sync = true)
+    public Optional<MembershipSnapshot> findByUserIdAndWorkspaceId(UUID userId, UUID workspaceId) {
+        return membershipRepository.findByUserIdAndWorkspaceIdAndStatus(userId, workspaceId, MembershipStatus.ACTIVE)
+                .map(MembershipSnapshot::from);
     }
 
-    @Caching(evict = {
-            @CacheEvict(key = "'user:' + #user.id"),
-            @CacheEvict(key = "'user:' + #user.id + ':workspace:' + #workspace.id")
-    })
+    /**
+     * Lists a workspace's members ordered by join time, a page at a time. Each page seeks past the
+     * cursor on {@code (workspace_id, joined_at, id)}, so deep pages cost the same as the first.
+     * Not cached: pages are cheap projections and would be invalidated by every join.
+     */
+    @Transactional(readOnly = true)
+    public MemberPage findMembers(UUID workspaceId, MembershipStatus status, Role role, String cursor, int limit) {
+        // One extra row tells whether another page follows
+        Limit fetch = Limit.of(limit + 1);
+        List<MemberRow> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = membershipRepository.findMembers(workspaceId, status, role, fetch);
+        } else {
+            MemberCursor after = MemberCursor.decode(cursor);
+            rows = membershipRepository.findMembersAfter(workspaceId, after.joinedAt(), after.id(), status, role, fetch);
+        }
+
+        if (rows.size() <= limit) {
+            return new MemberPage(rows, null);
+        }
+        List<MemberRow> page = rows.subList(0, limit);
+        return new MemberPage(List.copyOf(page), MemberCursor.after(page.getLast()).encode());
+    }
+
+    /**
+     * The user's role in the workspace, answered from the in-memory index while its change feed is
+     * live and from the membership cache otherwise.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Role> findRole(UUID userId, UUID workspaceId) {
+        if (membershipIndex.isReady()) {
+            return membershipIndex.findRole(userId, workspaceId);
+        }
+        MembershipKey key = new MembershipKey(userId, workspaceId);
+        return findByMembershipKeys(List.of(key)).get(key).map(MembershipSnapshot::role);
+    }
+
+    /**
+     * Bulk form of {@link #findRole}; with the index down, costs at most one query for the batch.
+     */
+    @Transactional(readOnly = true)
+    public Map<MembershipKey, Optional<Role>> findRoles(Collection<MembershipKey> keys) {
+        Map<MembershipKey, Optional<Role>> roles = new HashMap<>(keys.size() * 2);
+        if (membershipIndex.isReady()) {
+            keys.forEach(key -> roles.put(key, membershipIndex.findRole(key.userId(), key.workspaceId())));
+        } else {
+            findByMembershipKeys(keys).forEach((key, membership) -> roles.put(key, membership.map(MembershipSnapshot::role)));
+        }
+        return roles;
+    }
+
+    /**
+     * Bulk form of {@link #findByUserIdAndWorkspaceId}, sharing its cache entries. Generations for
+     * every pair are read in one round trip and all cache misses are loaded with a single query,
+     * whose results (including absent memberships) are then cached.
+     */
+    @Transactional(readOnly = true)
+    public Map<MembershipKey, Optional<MembershipSnapshot>> findByMembershipKeys(Collection<MembershipKey> keys) {
+        List<MembershipKey> distinct = List.copyOf(new LinkedHashSet<>(keys));
+        Map<MembershipKey, Optional<MembershipSnapshot>> found = new HashMap<>(distinct.size() * 2);
+        Cache cache = cacheManager.getCache(MEMBERSHIPS_CACHE);
+        List<String> cacheKeys = cache != null ? generations.userWorkspaceKeys(distinct) : List.of();
+
+        Map<MembershipKey, String> misses = new LinkedHashMap<>();
+        for (int i = 0; i < distinct.size(); i++) {
+            MembershipKey key = distinct.get(i);
+            Cache.ValueWrapper cached = cache != null ? cache.get(cacheKeys.get(i)) : null;
+            if (cached != null) {
+                found.put(key, Optional.ofNullable((MembershipSnapshot) cached.get()));
+            } else {
+                misses.put(key, cache != null ? cacheKeys.get(i) : null);
+            }
+        }
+        if (misses.isEmpty()) {
+            return found;
+        }
+
+        Set<UUID> userIds = new HashSet<>();
+        Set<UUID> workspaceIds = new HashSet<>();
+        misses.keySet().forEach(key -> {
+            userIds.add(key.userId());
+            workspaceIds.add(key.workspaceId());
+        });
+        Map<MembershipKey, MembershipSnapshot> loaded = new HashMap<>();
+        membershipRepository.findByUserIdsAndWorkspaceIds(userIds, workspaceIds, MembershipStatus.ACTIVE)
+                .forEach(row -> loaded.put(row.key(), row.toSnapshot()));
+
+        misses.forEach((key, cacheKey) -> {
+            MembershipSnapshot snapshot = loaded.get(key);
+            if (cache != null) {
+                cache.put(cacheKey, snapshot);
+            }
+            found.put(key, Optional.ofNullable(snapshot));
+        });
+        return found;
+    }
+
+    @CacheEvict(cacheNames = "login_bundles", key = "'email:' + #user.email")
     public WorkspaceMembership addUserToWorkspace(User user, Workspace workspace, Role roleType) {
         log.info("Adding user {} to workspace {} with role {}", user.getId(), workspace.getId(), roleType);
 
         WorkspaceRole role = roleService.findByWorkspaceIdAndRoleType(workspace.getId(), roleType)
+                .map(snapshot -> roleService.getReference(snapshot.id()))
                 .orElseThrow(() -> new IllegalStateException(
                         "Role " + roleType + " not found for workspace " + workspace.getId() +
                         ". This should not happen as all roles should be created during workspace setup."));
@@ -65,24 +285,28 @@ public class MembershipService {
                 .joinedAt(LocalDateTime.now())
                 .build();
 
-        return membershipRepository.save(membership);
+        WorkspaceMembership saved = membershipRepository.save(membership);
+        invalidateUser(user.getId());
+        outbox.append("membership", saved.getId(), "MembershipAdded",
+                new MembershipChangedEvent(saved.getId(), user.getId(), workspace.getId(), roleType, saved.getStatus()));
+        return saved;
     }
 
-    public void evictCache(UUID userId) {
-        log.debug("Evicting all membership cache entries for user: {}", userId);
-
-        var cache = cacheManager.getCache("memberships");
-        if (cache != null) {
-            String userCacheKey = "user:" + userId;
-            cache.evict(userCacheKey);
-            log.debug("Evicted cache key: {}", userCacheKey);
-
-            List<WorkspaceMembership> memberships = membershipRepository.findByUserIdAndStatus(userId, MembershipStatus.ACTIVE);
-            memberships.forEach(membership -> {
-                String userWorkspaceCacheKey = "user:" + userId + ":workspace:" + membership.getWorkspace().getId();
-                cache.evict(userWorkspaceCacheKey);
-                log.debug("Evicted cache key: {}", userWorkspaceCacheKey);
-            });
-        }
+    /**
+     * Invalidates every cached membership and session principal of the user after commit.
+     */
+    public void invalidateUser(UUID userId) {
+        log.debug("Invalidating membership cache entries for user: {}", userId);
+        generations.bumpUser(userId);
+        sessionPrincipalService.bumpUserVersion(userId);
+    }
+
+    /**
+     * Invalidates every cached membership and session principal in the workspace after commit.
+     */
+    public void invalidateWorkspace(UUID workspaceId) {
+        log.debug("Invalidating membership cache entries for workspace: {}", workspaceId);
+        generations.bumpWorkspace(workspaceId);
+        sessionPrincipalService.bumpWorkspaceVersion(workspaceId);
     }
 }
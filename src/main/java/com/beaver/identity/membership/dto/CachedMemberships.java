@@ -0,0 +1,25 @@
+package com.beaver.identity.membership.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A user's active memberships together with the generations they were loaded under: the user's
+ * generation first, then the generation of each membership's workspace, index-aligned with
+ * {@code memberships}. A hit is validated by reading all of them back in one round trip.
+ *
+ * Users with too many memberships to cache are stored as an empty {@code oversized} marker, so
+ * repeat calls learn to stream without counting again.
+ */
+public record CachedMemberships(List<MembershipSnapshot> memberships, List<Long> generations, boolean oversized) {
+
+    public static CachedMemberships oversizedMarker(long userGeneration) {
+        return new CachedMemberships(List.of(), List.of(userGeneration), true);
+    }
+
+    public List<UUID> workspaceIds() {
+        return memberships.stream()
+                .map(MembershipSnapshot::workspaceId)
+                .toList();
+    }
+}
@@ -0,0 +1,13 @@
+package com.beaver.identity.membership.dto;
+
+import java.util.List;
+
+/**
+ * One page of workspace members. {@code nextCursor} is passed back as {@code cursor} to fetch the
+ * following page and is null on the last one.
+ */
+public record MemberPage(
+        List<MemberRow> members,
+        String nextCursor
+) {
+}
@@ -0,0 +1,18 @@
+package com.beaver.identity.membership.dto;
+
+import com.beaver.auth.roles.Role;
+import com.beaver.identity.membership.enums.MembershipStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record MemberRow(
+        UUID membershipId,
+        UUID userId,
+        String email,
+        String name,
+        Role role,
+        MembershipStatus status,
+        LocalDateTime joinedAt
+) {
+}
@@ -0,0 +1,18 @@
+package com.beaver.identity.membership.dto;
+
+import com.beaver.auth.roles.Role;
+import com.beaver.identity.membership.enums.MembershipStatus;
+
+import java.util.UUID;
+
+/**
+ * Outbox payload for membership changes.
+ */
+public record MembershipChangedEvent(
+        UUID id,
+        UUID userId,
+        UUID workspaceId,
+        Role role,
+        MembershipStatus status
+) {
+}
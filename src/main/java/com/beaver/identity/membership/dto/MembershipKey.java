@@ -0,0 +1,6 @@
+package com.beaver.identity.membership.dto;
+
+import java.util.UUID;
+
+public record MembershipKey(UUID userId, UUID workspaceId) {
+}
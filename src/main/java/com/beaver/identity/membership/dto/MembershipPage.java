@@ -0,0 +1,12 @@
+package com.beaver.identity.membership.dto;
+
+import java.util.List;
+
+/**
+ * One page of a user's memberships. {@code nextCursor} is null on the last page.
+ */
+public record MembershipPage(
+        List<MembershipSnapshot> memberships,
+        String nextCursor
+) {
+}
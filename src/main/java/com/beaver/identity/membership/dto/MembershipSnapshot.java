@@ -0,0 +1,37 @@
+package com.beaver.identity.membership.dto;
+
+import com.beaver.auth.roles.Role;
+import com.beaver.identity.membership.entity.WorkspaceMembership;
+import com.beaver.identity.membership.enums.MembershipStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Immutable view of a membership as stored in the memberships cache. Requires the workspace
+ * and role associations to be loaded when built.
+ */
+public record MembershipSnapshot(
+        UUID id,
+        UUID workspaceId,
+        String workspaceName,
+        Role role,
+        MembershipStatus status,
+        LocalDateTime joinedAt,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        UUID updatedBy
+) {
+    public static MembershipSnapshot from(WorkspaceMembership membership) {
+        return new MembershipSnapshot(
+                membership.getId(),
+                membership.getWorkspace().getId(),
+                membership.getWorkspace().getName(),
+                membership.getRole().getRoleType(),
+                membership.getStatus(),
+                membership.getJoinedAt(),
+                membership.getCreatedAt(),
+                membership.getUpdatedAt(),
+                membership.getUpdatedBy());
+    }
+}
@@ -0,0 +1,10 @@
+package com.beaver.identity.membership.dto;
+
+import com.beaver.auth.roles.Role;
+
+public record PrincipalRow(
+        String email,
+        String name,
+        Role role
+) {
+}
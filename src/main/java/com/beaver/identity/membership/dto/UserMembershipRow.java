@@ -0,0 +1,31 @@
+package com.beaver.identity.membership.dto;
+
+import com.beaver.auth.roles.Role;
+import com.beaver.identity.membership.enums.MembershipStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A membership snapshot together with the user it belongs to, for lookups spanning many users.
+ */
+public record UserMembershipRow(
+        UUID userId,
+        UUID id,
+        UUID workspaceId,
+        String workspaceName,
+        Role role,
+        MembershipStatus status,
+        LocalDateTime joinedAt,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        UUID updatedBy
+) {
+    public MembershipKey key() {
+        return new MembershipKey(userId, workspaceId);
+    }
+
+    public MembershipSnapshot toSnapshot() {
+        return new MembershipSnapshot(id, workspaceId, workspaceName, role, status, joinedAt, createdAt, updatedAt, updatedBy);
+    }
+}
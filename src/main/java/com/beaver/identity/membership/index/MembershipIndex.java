@@ -0,0 +1,245 @@
+package com.beaver.identity.membership.index;
+
+import com.beaver.auth.roles.Role;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every active membership held in memory as (user, workspace) → role, so role checks are answered
+ * without Redis or Postgres.
+ *
+ * The index is bulk-loaded by streaming {@code workspace_memberships} once the application is
+ * ready, then kept current by the {@code membership_changes} notifications raised by the V12
+ * triggers. The channel is LISTENed to before the load starts, so changes committed during the
+ * load are applied after it and nothing is missed. When the listening connection drops, the index
+ * reports itself not ready (callers fall back to the membership cache) until it has reconnected
+ * and reloaded. Waiting for notifications never sends anything, so the connection is also checked
+ * with a round trip every health check interval; a half-open connection fails that check and
+ * triggers the same reconnect.
+ *
+ * Entries cost 41 bytes per table slot and the table is kept between 30% and 60% full: one
+ * million memberships take 2^21 slots, about 86 MB.
+ */
+@Slf4j
+@Component
+public class MembershipIndex {
+
+    static final String CHANNEL = "membership_changes";
+
+    private static final String SELECT_ACTIVE =
+            "SELECT wm.user_id, wm.workspace_id, r.role_type " +
+            "FROM workspace_memberships wm JOIN roles r ON r.id = wm.role_id " +
+            "WHERE wm.status = 'ACTIVE'";
+
+    private static final Role[] ROLES = Role.values();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final boolean enabled;
+    private final Duration reconnectDelay;
+    private final Duration healthCheckInterval;
+
+    private volatile MembershipTable table = new MembershipTable(0);
+    private volatile boolean ready;
+    private volatile boolean running = true;
+    private Thread listener;
+
+    private final Counter memberChanges;
+    private final Counter workspaceReloads;
+    private final Timer loadTimer;
+
+    public MembershipIndex(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${spring.datasource.url}") String url,
+            @Value("${spring.datasource.username}") String username,
+            @Value("${spring.datasource.password}") String password,
+            @Value("${memberships.index.enabled:true}") boolean enabled,
+            @Value("${memberships.index.reconnect-delay:PT5S}") Duration reconnectDelay,
+            @Value("${memberships.index.health-check-interval:PT5S}") Duration healthCheckInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.enabled = enabled;
+        this.reconnectDelay = reconnectDelay;
+        this.healthCheckInterval = healthCheckInterval;
+
+        Gauge.builder("identity.memberships.index.size", this, index -> index.table.size())
+                .register(meterRegistry);
+        Gauge.builder("identity.memberships.index.bytes", this, index -> index.table.sizeInBytes())
+                .register(meterRegistry);
+        this.memberChanges = Counter.builder("identity.memberships.index.changes")
+                .tag("type", "membership")
+                .register(meterRegistry);
+        this.workspaceReloads = Counter.builder("identity.memberships.index.changes")
+                .tag("type", "workspace")
+                .register(meterRegistry);
+        this.loadTimer = Timer.builder("identity.memberships.index.load").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Membership index disabled");
+            return;
+        }
+        listener = new Thread(this::run, "membership-index");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * The user's role in the workspace, or empty when they are not an active member. Only
+     * authoritative while {@link #isReady()}.
+     */
+    public Optional<Role> findRole(UUID userId, UUID workspaceId) {
+        int ordinal = table.get(userId, workspaceId);
+        return ordinal == MembershipTable.ABSENT ? Optional.empty() : Optional.of(ROLES[ordinal]);
+    }
+
+    private void run() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection notifications = connection.unwrap(PGConnection.class);
+
+                load();
+                ready = true;
+
+                long nextCheck = System.nanoTime() + healthCheckInterval.toNanos();
+                while (running) {
+                    PGNotification[] received = notifications.getNotifications((int) healthCheckInterval.toMillis());
+                    if (received != null) {
+                        for (PGNotification notification : received) {
+                            apply(notification.getParameter());
+                        }
+                    }
+                    if (System.nanoTime() - nextCheck >= 0) {
+                        if (!connection.isValid(healthCheckTimeoutSeconds())) {
+                            throw new SQLException("Membership change feed connection failed its health check");
+                        }
+                        nextCheck = System.nanoTime() + healthCheckInterval.toNanos();
+                    }
+                }
+            } catch (Exception e) {
+                ready = false;
+                if (running) {
+                    log.warn("Membership change feed lost, serving role checks from the cache until it reconnects", e);
+                    sleep(reconnectDelay);
+                }
+            }
+        }
+    }
+
+    private int healthCheckTimeoutSeconds() {
+        return (int) Math.max(1, healthCheckInterval.toSeconds());
+    }
+
+    private void load() {
+        long start = System.nanoTime();
+        MembershipTable loaded = readOnlyTransaction.execute(status -> {
+            Long expected = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM workspace_memberships WHERE status = 'ACTIVE'", Long.class);
+            MembershipTable next = new MembershipTable(expected != null ? expected : 0);
+            jdbcTemplate.query(connection -> {
+                var statement = connection.prepareStatement(SELECT_ACTIVE);
+                statement.setFetchSize(10_000);
+                return statement;
+            }, rs -> {
+                next.put(rs.getObject(1, UUID.class), rs.getObject(2, UUID.class), Role.valueOf(rs.getString(3)).ordinal());
+            });
+            return next;
+        });
+        table = loaded;
+        loadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        log.info("Loaded {} memberships into the index ({} bytes) in {} ms",
+                loaded.size(), loaded.sizeInBytes(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Payloads are {@code m,<user>,<workspace>,<role>} for a single membership, with an empty role
+     * when it is no longer active, or {@code w,<workspace>} when the workspace's roles changed.
+     */
+    void apply(String payload) {
+        String[] parts = payload.split(",", -1);
+        if ("m".equals(parts[0]) && parts.length == 4) {
+            UUID userId = UUID.fromString(parts[1]);
+            UUID workspaceId = UUID.fromString(parts[2]);
+            if (parts[3].isEmpty()) {
+                table.remove(userId, workspaceId);
+            } else {
+                table.put(userId, workspaceId, Role.valueOf(parts[3]).ordinal());
+            }
+            memberChanges.increment();
+        } else if ("w".equals(parts[0]) && parts.length == 2) {
+            reloadWorkspace(UUID.fromString(parts[1]));
+            workspaceReloads.increment();
+        } else {
+            log.warn("Ignoring malformed membership change '{}'", payload);
+        }
+    }
+
+    private void reloadWorkspace(UUID workspaceId) {
+        List<MembershipTable.Entry> entries = new ArrayList<>();
+        jdbcTemplate.query(SELECT_ACTIVE + " AND wm.workspace_id = ?",
+                rs -> {
+                    entries.add(new MembershipTable.Entry(rs.getObject(1, UUID.class), Role.valueOf(rs.getString(3)).ordinal()));
+                },
+                workspaceId);
+        table.replaceWorkspace(workspaceId, entries);
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+            listener.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.beaver.identity.membership.index;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Open-addressing hash table from a (user, workspace) pair to a role ordinal, held in flat
+ * primitive arrays: four longs of key and one byte of role per slot, with no per-entry objects.
+ * Probing is linear; removals leave tombstones that are dropped on resize.
+ *
+ * Live slots of the same workspace are also chained through two int arrays, with the first slot of
+ * each workspace kept in a map, so a workspace is replaced by walking its own slots rather than the
+ * whole table. With the links a slot costs 41 bytes.
+ *
+ * Written by a single thread and read by many. Readers probe under an optimistic stamp and only
+ * fall back to the read lock when a write overlapped them.
+ */
+final class MembershipTable {
+
+    static final int ABSENT = -1;
+
+    private static final byte EMPTY = 0;
+    private static final byte TOMBSTONE = -1;
+    private static final double MAX_LOAD = 0.6;
+
+    private final StampedLock lock = new StampedLock();
+
+    private long[] keys;
+    /**
+     * Role ordinal + 1 for live slots, so that zero means empty.
+     */
+    private byte[] roles;
+    /**
+     * Previous and next live slot of the same workspace, or -1. Only touched by the writer.
+     */
+    private int[] previous;
+    private int[] next;
+    private Map<UUID, Integer> workspaceHeads;
+    private int size;
+    private int used;
+
+    MembershipTable(long expectedSize) {
+        allocate(capacityFor(Math.max(expectedSize, 16)));
+    }
+
+    /**
+     * @return the role ordinal, or {@link #ABSENT}
+     */
+    int get(UUID userId, UUID workspaceId) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                int ordinal = find(userId, workspaceId);
+                if (lock.validate(stamp)) {
+                    return ordinal;
+                }
+            } catch (RuntimeException e) {
+                // Saw a resize half-way; retry under the lock
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return find(userId, workspaceId);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    void put(UUID userId, UUID workspaceId, int roleOrdinal) {
+        long stamp = lock.writeLock();
+        try {
+            putLocked(userId, workspaceId, roleOrdinal);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    void remove(UUID userId, UUID workspaceId) {
+        long stamp = lock.writeLock();
+        try {
+            removeLocked(userId, workspaceId);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Replaces every entry of the workspace in one write, so readers never see it half-reloaded.
+     */
+    void replaceWorkspace(UUID workspaceId, Iterable<Entry> entries) {
+        long stamp = lock.writeLock();
+        try {
+            Integer head = workspaceHeads.remove(workspaceId);
+            for (int slot = head != null ? head : -1; slot >= 0; slot = next[slot]) {
+                roles[slot] = TOMBSTONE;
+                size--;
+            }
+            for (Entry entry : entries) {
+                putLocked(entry.userId(), workspaceId, entry.roleOrdinal());
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    long sizeInBytes() {
+        return (long) keys.length * Long.BYTES + roles.length + (long) (previous.length + next.length) * Integer.BYTES;
+    }
+
+    private int find(UUID userId, UUID workspaceId) {
+        long[] k = keys;
+        byte[] r = roles;
+        int capacity = Math.min(r.length, k.length / 4);
+        long a = userId.getMostSignificantBits();
+        long b = userId.getLeastSignificantBits();
+        long c = workspaceId.getMostSignificantBits();
+        long d = workspaceId.getLeastSignificantBits();
+
+        int slot = hash(a, b, c, d) & (capacity - 1);
+        for (int probes = 0; probes < capacity; probes++) {
+            byte role = r[slot];
+            if (role == EMPTY) {
+                return ABSENT;
+            }
+            int base = slot * 4;
+            if (role > 0 && k[base] == a && k[base + 1] == b && k[base + 2] == c && k[base + 3] == d) {
+                return role - 1;
+            }
+            slot = (slot + 1) & (capacity - 1);
+        }
+        return ABSENT;
+    }
+
+    private void putLocked(UUID userId, UUID workspaceId, int roleOrdinal) {
+        if (used + 1 > roles.length * MAX_LOAD) {
+            resize(capacityFor(size + 1L));
+        }
+        long a = userId.getMostSignificantBits();
+        long b = userId.getLeastSignificantBits();
+        long c = workspaceId.getMostSignificantBits();
+        long d = workspaceId.getLeastSignificantBits();
+
+        int mask = roles.length - 1;
+        int slot = hash(a, b, c, d) & mask;
+        int firstTombstone = -1;
+        while (roles[slot] != EMPTY) {
+            int base = slot * 4;
+            if (roles[slot] == TOMBSTONE) {
+                if (firstTombstone < 0) {
+                    firstTombstone = slot;
+                }
+            } else if (keys[base] == a && keys[base + 1] == b && keys[base + 2] == c && keys[base + 3] == d) {
+                roles[slot] = (byte) (roleOrdinal + 1);
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (firstTombstone >= 0) {
+            slot = firstTombstone;
+        } else {
+            used++;
+        }
+        int base = slot * 4;
+        keys[base] = a;
+        keys[base + 1] = b;
+        keys[base + 2] = c;
+        keys[base + 3] = d;
+        roles[slot] = (byte) (roleOrdinal + 1);
+        link(slot, c, d);
+        size++;
+    }
+
+    private void removeLocked(UUID userId, UUID workspaceId) {
+        long a = userId.getMostSignificantBits();
+        long b = userId.getLeastSignificantBits();
+        long c = workspaceId.getMostSignificantBits();
+        long d = workspaceId.getLeastSignificantBits();
+
+        int mask = roles.length - 1;
+        int slot = hash(a, b, c, d) & mask;
+        while (roles[slot] != EMPTY) {
+            int base = slot * 4;
+            if (roles[slot] > 0 && keys[base] == a && keys[base + 1] == b && keys[base + 2] == c && keys[base + 3] == d) {
+                roles[slot] = TOMBSTONE;
+                unlink(slot, c, d);
+                size--;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        byte[] oldRoles = roles;
+        allocate(capacity);
+        for (int slot = 0; slot < oldRoles.length; slot++) {
+            if (oldRoles[slot] > 0) {
+                int base = slot * 4;
+                insertFresh(oldKeys[base], oldKeys[base + 1], oldKeys[base + 2], oldKeys[base + 3], oldRoles[slot]);
+            }
+        }
+    }
+
+    private void insertFresh(long a, long b, long c, long d, byte role) {
+        int mask = roles.length - 1;
+        int slot = hash(a, b, c, d) & mask;
+        while (roles[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        int base = slot * 4;
+        keys[base] = a;
+        keys[base + 1] = b;
+        keys[base + 2] = c;
+        keys[base + 3] = d;
+        roles[slot] = role;
+        link(slot, c, d);
+        size++;
+        used++;
+    }
+
+    private void link(int slot, long workspaceMsb, long workspaceLsb) {
+        UUID workspaceId = new UUID(workspaceMsb, workspaceLsb);
+        Integer head = workspaceHeads.put(workspaceId, slot);
+        previous[slot] = -1;
+        next[slot] = head != null ? head : -1;
+        if (head != null) {
+            previous[head] = slot;
+        }
+    }
+
+    private void unlink(int slot, long workspaceMsb, long workspaceLsb) {
+        int before = previous[slot];
+        int after = next[slot];
+        if (before >= 0) {
+            next[before] = after;
+        } else if (after >= 0) {
+            workspaceHeads.put(new UUID(workspaceMsb, workspaceLsb), after);
+        } else {
+            workspaceHeads.remove(new UUID(workspaceMsb, workspaceLsb));
+        }
+        if (after >= 0) {
+            previous[after] = before;
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity * 4];
+        roles = new byte[capacity];
+        previous = new int[capacity];
+        next = new int[capacity];
+        workspaceHeads = new HashMap<>();
+        size = 0;
+        used = 0;
+    }
+
+    private static int capacityFor(long entries) {
+        long needed = (long) Math.ceil(entries / MAX_LOAD);
+        return (int) Math.max(16, Long.highestOneBit(needed - 1) << 1);
+    }
+
+    private static int hash(long a, long b, long c, long d) {
+        long h = a * 0x9E3779B97F4A7C15L;
+        h = (h ^ b) * 0xC2B2AE3D27D4EB4FL;
+        h = (h ^ c) * 0x165667B19E3779F9L;
+        h = (h ^ d) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    record Entry(UUID userId, int roleOrdinal) {
+    }
+}
@@ -0,0 +1,60 @@
+package com.beaver.identity.membership.invitation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads {@code email,role} lines one at a time. Blank lines and a leading {@code email,role}
+ * header are skipped; line numbers refer to the file as submitted.
+ */
+public class InvitationCsvReader implements Iterator<InvitationRow> {
+
+    private final BufferedReader reader;
+    private long lineNumber;
+    private InvitationRow next;
+
+    public InvitationCsvReader(BufferedReader reader) {
+        this.reader = reader;
+        this.next = read();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public InvitationRow next() {
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+        InvitationRow current = next;
+        next = read();
+        return current;
+    }
+
+    private InvitationRow read() {
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                String[] columns = line.split(",", -1);
+                String email = columns[0].trim();
+                String role = columns.length > 1 ? columns[1].trim() : "";
+                if (lineNumber == 1 && email.equalsIgnoreCase("email")) {
+                    continue;
+                }
+                return new InvitationRow(lineNumber, email, role);
+            }
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package com.beaver.identity.membership.invitation;
+
+public record InvitationResult(long line, String email, InvitationStatus status) {
+}
@@ -0,0 +1,8 @@
+package com.beaver.identity.membership.invitation;
+
+/**
+ * One requested invitation as submitted, before validation. {@code line} is its 1-based position
+ * in the submitted list or file and is echoed back in the result.
+ */
+public record InvitationRow(long line, String email, String role) {
+}
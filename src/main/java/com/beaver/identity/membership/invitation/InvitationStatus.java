@@ -0,0 +1,9 @@
+package com.beaver.identity.membership.invitation;
+
+public enum InvitationStatus {
+    INVITED,
+    ALREADY_MEMBER,
+    USER_NOT_FOUND,
+    INVALID_EMAIL,
+    INVALID_ROLE
+}
@@ -0,0 +1,239 @@
+package com.beaver.identity.membership.invitation;
+
+import com.beaver.auth.roles.Role;
+import com.beaver.identity.common.audit.AuditAction;
+import com.beaver.identity.common.audit.AuditContext;
+import com.beaver.identity.common.audit.AuditEvent;
+import com.beaver.identity.common.audit.AuditTrail;
+import com.beaver.identity.common.entity.UuidV7;
+import com.beaver.identity.common.outbox.Outbox;
+import com.beaver.identity.membership.MembershipService;
+import com.beaver.identity.membership.dto.MembershipChangedEvent;
+import com.beaver.identity.membership.enums.MembershipStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Invites existing users into a workspace as PENDING members.
+ *
+ * Rows are consumed and processed in chunks, each in its own transaction: one query resolves the
+ * chunk's emails to users, one finds those already in the workspace, and one statement inserts
+ * the new memberships. Results are handed to the sink chunk by chunk, so neither the input nor the
+ * results are ever held in full.
+ *
+ * The insert skips rows that conflict with a membership created concurrently and returns the ids
+ * it actually wrote; only those rows are reported INVITED, audited and given a
+ * {@code MembershipAdded} outbox event, the rest ALREADY_MEMBER.
+ */
+@Slf4j
+@Service
+public class MemberInvitationService {
+
+    static final int CHUNK_SIZE = 500;
+
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+
+    private static final String INSERT_MEMBERSHIPS =
+            "INSERT INTO workspace_memberships (id, user_id, workspace_id, role_id, status, joined_at, created_at, updated_at, updated_by) " +
+            "SELECT m.id, m.user_id, ?, m.role_id, ?, ?, ?, ?, ? " +
+            "FROM unnest(?::uuid[], ?::uuid[], ?::uuid[]) AS m(id, user_id, role_id) " +
+            "ON CONFLICT (user_id, workspace_id) DO NOTHING " +
+            "RETURNING id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MembershipService membershipService;
+    private final AuditTrail auditTrail;
+    private final Outbox outbox;
+
+    public MemberInvitationService(JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   MembershipService membershipService,
+                                   AuditTrail auditTrail,
+                                   Outbox outbox) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.membershipService = membershipService;
+        this.auditTrail = auditTrail;
+        this.outbox = outbox;
+    }
+
+    public InvitationResult invite(UUID workspaceId, InvitationRow row) {
+        List<InvitationResult> results = new ArrayList<>(1);
+        inviteAll(workspaceId, List.of(row).iterator(), results::add);
+        return results.getFirst();
+    }
+
+    /**
+     * Processes every row and reports one result per row, in input order.
+     *
+     * @return the number of memberships created
+     */
+    public long inviteAll(UUID workspaceId, Iterator<InvitationRow> rows, Consumer<InvitationResult> sink) {
+        Map<Role, UUID> roleIds = findRoleIds(workspaceId);
+
+        long invited = 0;
+        try {
+            List<InvitationRow> chunk = new ArrayList<>(CHUNK_SIZE);
+            while (rows.hasNext()) {
+                chunk.add(rows.next());
+                if (chunk.size() == CHUNK_SIZE) {
+                    invited += processChunk(workspaceId, roleIds, chunk, sink);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                invited += processChunk(workspaceId, roleIds, chunk, sink);
+            }
+        } finally {
+            // Chunks committed before a failure are visible too. One generation bump covers every
+            // invitee, instead of an eviction per user
+            if (invited > 0) {
+                membershipService.invalidateWorkspace(workspaceId);
+            }
+        }
+        log.info("Invited {} members into workspace {}", invited, workspaceId);
+        return invited;
+    }
+
+    private Map<Role, UUID> findRoleIds(UUID workspaceId) {
+        Map<Role, UUID> roleIds = new EnumMap<>(Role.class);
+        jdbcTemplate.query("SELECT id, role_type FROM roles WHERE workspace_id = ?",
+                rs -> {
+                    roleIds.put(Role.valueOf(rs.getString("role_type")), rs.getObject("id", UUID.class));
+                },
+                workspaceId);
+        return roleIds;
+    }
+
+    private long processChunk(UUID workspaceId, Map<Role, UUID> roleIds, List<InvitationRow> chunk,
+                              Consumer<InvitationResult> sink) {
+        InvitationStatus[] statuses = new InvitationStatus[chunk.size()];
+        List<String> emails = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            InvitationRow row = chunk.get(i);
+            if (row.email() == null || !EMAIL.matcher(row.email()).matches()) {
+                statuses[i] = InvitationStatus.INVALID_EMAIL;
+            } else if (parseRole(row.role(), roleIds) == null) {
+                statuses[i] = InvitationStatus.INVALID_ROLE;
+            } else {
+                emails.add(row.email());
+            }
+        }
+
+        List<UUID> createdIds = transactionTemplate.execute(status -> {
+            Map<String, UUID> userIds = findUserIds(emails);
+            Set<UUID> members = findMembers(workspaceId, userIds.values());
+
+            LocalDateTime now = LocalDateTime.now();
+            UUID actorId = AuditContext.current().actorId();
+            List<UUID> ids = new ArrayList<>();
+            List<UUID> invitees = new ArrayList<>();
+            List<UUID> inviteeRoles = new ArrayList<>();
+            UUID[] membershipIds = new UUID[chunk.size()];
+            for (int i = 0; i < chunk.size(); i++) {
+                if (statuses[i] != null) {
+                    continue;
+                }
+                InvitationRow row = chunk.get(i);
+                UUID userId = userIds.get(row.email());
+                if (userId == null) {
+                    statuses[i] = InvitationStatus.USER_NOT_FOUND;
+                } else if (!members.add(userId)) {
+                    statuses[i] = InvitationStatus.ALREADY_MEMBER;
+                } else {
+                    membershipIds[i] = UuidV7.next();
+                    ids.add(membershipIds[i]);
+                    invitees.add(userId);
+                    inviteeRoles.add(roleIds.get(parseRole(row.role(), roleIds)));
+                }
+            }
+            if (ids.isEmpty()) {
+                return List.<UUID>of();
+            }
+
+            Set<UUID> inserted = new HashSet<>(jdbcTemplate.queryForList(INSERT_MEMBERSHIPS, UUID.class,
+                    workspaceId, MembershipStatus.PENDING.name(), now, now, now, actorId,
+                    ids.toArray(UUID[]::new), invitees.toArray(UUID[]::new), inviteeRoles.toArray(UUID[]::new)));
+            Map<UUID, MembershipChangedEvent> events = new LinkedHashMap<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                if (membershipIds[i] == null) {
+                    continue;
+                }
+                if (inserted.contains(membershipIds[i])) {
+                    statuses[i] = InvitationStatus.INVITED;
+                    events.put(membershipIds[i], new MembershipChangedEvent(membershipIds[i],
+                            userIds.get(chunk.get(i).email()), workspaceId,
+                            parseRole(chunk.get(i).role(), roleIds), MembershipStatus.PENDING));
+                } else {
+                    // Not returned: a concurrent request made the user a member since findMembers
+                    statuses[i] = InvitationStatus.ALREADY_MEMBER;
+                }
+            }
+            outbox.appendAll("membership", "MembershipAdded", events);
+            return ids.stream().filter(inserted::contains).toList();
+        });
+
+        createdIds.forEach(id -> auditTrail.record(AuditEvent.of(AuditAction.CREATE, "WorkspaceMembership", id, null)));
+        for (int i = 0; i < chunk.size(); i++) {
+            sink.accept(new InvitationResult(chunk.get(i).line(), chunk.get(i).email(), statuses[i]));
+        }
+        return createdIds.size();
+    }
+
+    private Map<String, UUID> findUserIds(List<String> emails) {
+        Map<String, UUID> userIds = new HashMap<>();
+        if (emails.isEmpty()) {
+            return userIds;
+        }
+        jdbcTemplate.query("SELECT id, email FROM users WHERE email = ANY (?)",
+                rs -> {
+                    userIds.put(rs.getString("email"), rs.getObject("id", UUID.class));
+                },
+                (Object) emails.toArray(String[]::new));
+        return userIds;
+    }
+
+    private Set<UUID> findMembers(UUID workspaceId, Collection<UUID> userIds) {
+        if (userIds.isEmpty()) {
+            return new HashSet<>();
+        }
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT user_id FROM workspace_memberships WHERE workspace_id = ? AND user_id = ANY (?)",
+                UUID.class, workspaceId, userIds.toArray(UUID[]::new)));
+    }
+
+    /**
+     * Owner cannot be granted through an invitation.
+     */
+    private static Role parseRole(String role, Map<Role, UUID> roleIds) {
+        if (role == null || role.isBlank()) {
+            return null;
+        }
+        try {
+            Role parsed = Role.valueOf(role.trim().toUpperCase(Locale.ROOT));
+            return parsed != Role.OWNER && roleIds.containsKey(parsed) ? parsed : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
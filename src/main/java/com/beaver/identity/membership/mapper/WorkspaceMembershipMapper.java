@@ -0,0 +1,32 @@
+package com.beaver.identity.membership.mapper;
+
+import com.beaver.identity.membership.dto.MembershipSnapshot;
+import com.beaver.identity.membership.dto.WorkspaceMembershipDto;
+import com.beaver.identity.membership.entity.WorkspaceMembership;
+import com.beaver.identity.common.mapper.MappingContributor;
+import com.beaver.identity.common.mapper.MappingRegistry;
+import org.mapstruct.Builder;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.ReportingPolicy;
+
+@Mapper(
+        componentModel = "spring",
+        builder = @Builder(disableBuilder = true),
+        unmappedTargetPolicy = ReportingPolicy.IGNORE
+)
+public interface WorkspaceMembershipMapper extends MappingContributor {
+
+    @Mapping(target = "workspaceId", source = "workspace.id")
+    @Mapping(target = "workspaceName", source = "workspace.name")
+    @Mapping(target = "role", source = "role.roleType")
+    WorkspaceMembershipDto toDto(WorkspaceMembership membership);
+
+    WorkspaceMembershipDto toDto(MembershipSnapshot membership);
+
+    @Override
+    default void contribute(MappingRegistry registry) {
+        registry.dto(WorkspaceMembership.class, WorkspaceMembershipDto.class, this::toDto);
+        registry.dto(MembershipSnapshot.class, WorkspaceMembershipDto.class, this::toDto);
+    }
+}
@@ -0,0 +1,16 @@
+package com.beaver.identity.role.dto;
+
+import com.beaver.auth.roles.Role;
+import com.beaver.identity.role.entity.WorkspaceRole;
+
+import java.util.UUID;
+
+public record RoleSnapshot(
+        UUID id,
+        UUID workspaceId,
+        Role roleType
+) {
+    public static RoleSnapshot from(WorkspaceRole role) {
+        return new RoleSnapshot(role.getId(), role.getWorkspace().getId(), role.getRoleType());
+    }
+}
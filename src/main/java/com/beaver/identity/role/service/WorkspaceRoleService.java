@@ -1,6 +1,7 @@
 package com.beaver.identity.role.service;
 
 import com.beaver.auth.roles.Role;
+import com.beaver.identity.role.dto.RoleSnapshot;
 import com.beaver.identity.role.entity.WorkspaceRole;
 import com.beaver.identity.role.repository.IWorkspaceRoleRepository;
 import com.beaver.identity.workspace.entity.Workspace;
@@ -50,8 +51,16 @@ public class WorkspaceRoleService {
     }
 
     @Transactional(readOnly = true)
-    @Cacheable(key = "'workspace:' + #workspaceId + ':role:' + #roleType")
-    public Optional<WorkspaceRole> findByWorkspaceIdAndRoleType(UUID workspaceId, Role roleType) {
-        return roleRepository.findByWorkspaceIdAndRoleType(workspaceId, roleType);
+    @Cacheable(key = "'workspace:' + #workspaceId + ':role:' + #roleType", sync = true)
+    public Optional<RoleSnapshot> findByWorkspaceIdAndRoleType(UUID workspaceId, Role roleType) {
+        return roleRepository.findByWorkspaceIdAndRoleType(workspaceId, roleType)
+                .map(RoleSnapshot::from);
+    }
+
+    /**
+     * Reference to a role for use as an association, without loading it.
+     */
+    public WorkspaceRole getReference(UUID roleId) {
+        return roleRepository.getReferenceById(roleId);
     }
 }
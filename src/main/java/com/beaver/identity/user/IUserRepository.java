@@ -1,14 +1,53 @@
 package com.beaver.identity.user;
 
+import com.beaver.identity.membership.enums.MembershipStatus;
+import com.beaver.identity.user.dto.LoginRow;
 import com.beaver.identity.user.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface IUserRepository extends JpaRepository<User, UUID> {
     Optional<User> findById(UUID id);
     Optional<User> findByEmail(String email);
-}
\ No newline at end of file
+    boolean existsByEmail(String email);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT u.email FROM User u")
+    Stream<String> streamAllEmails();
+
+    /**
+     * Replaces the password hash only while it is still {@code expected}.
+     *
+     * @return the number of updated rows, 0 when the password was changed in the meantime
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.password = :upgraded WHERE u.id = :id AND u.password = :expected")
+    int upgradePassword(
+            @Param("id") UUID id,
+            @Param("expected") String expected,
+            @Param("upgraded") String upgraded);
+
+    @Query("SELECT u.id AS userId, u.email AS email, u.name AS name, u.password AS password, " +
+           "u.lastWorkspaceId AS lastWorkspaceId, wm.workspace.id AS workspaceId, r.roleType AS roleType " +
+           "FROM User u " +
+           "LEFT JOIN u.memberships wm ON wm.status = :status " +
+           "LEFT JOIN wm.role r " +
+           "WHERE u.email = :email " +
+           "ORDER BY wm.joinedAt")
+    List<LoginRow> findLoginRowsByEmail(
+            @Param("email") String email,
+            @Param("status") MembershipStatus status);
+}
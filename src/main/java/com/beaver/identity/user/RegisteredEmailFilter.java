@@ -0,0 +1,210 @@
+package com.beaver.identity.user;
+
+import com.beaver.identity.common.cache.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filter of every registered email, so lookups for unknown emails are answered without
+ * touching Redis or Postgres.
+ *
+ * The filter is built from the users table once the application is ready and rebuilt
+ * periodically, which also drops deleted emails. New emails are added before the writing
+ * transaction commits and announced to the other nodes, and a write whose email cannot be
+ * announced fails; adding too early only costs a false positive, never a false negative. Until the first build completes every email is reported as
+ * possibly registered.
+ *
+ * An email added before a rebuild whose transaction commits after the rebuild's scan started is
+ * missing from the scan, so every add is also journaled. The rebuilt filter is unioned with the
+ * adds journaled since the previous rebuild started before it is published, and adds, the union
+ * and the swap all happen under one lock so none can fall between them.
+ */
+@Slf4j
+@Component
+public class RegisteredEmailFilter implements MessageListener {
+
+    public static final ChannelTopic REGISTERED_TOPIC = new ChannelTopic("identity:emails:registered");
+
+    private final IUserRepository userRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final Duration rebuildInterval;
+
+    private final ScheduledExecutorService rebuilder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "email-filter-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Object lock = new Object();
+    private volatile BloomFilter current;
+    private BloomFilter building;
+    /**
+     * Adds since the last rebuild started, and those of the window before it.
+     */
+    private Set<String> journal = new HashSet<>();
+    private Set<String> previousJournal = new HashSet<>();
+
+    private final Counter rejected;
+    private final Counter passed;
+
+    public RegisteredEmailFilter(
+            IUserRepository userRepository,
+            StringRedisTemplate redisTemplate,
+            PlatformTransactionManager transactionManager,
+            RedisMessageListenerContainer listenerContainer,
+            MeterRegistry meterRegistry,
+            @Value("${users.email-filter.expected-insertions:1000000}") long expectedInsertions,
+            @Value("${users.email-filter.false-positive-rate:0.01}") double falsePositiveRate,
+            @Value("${users.email-filter.rebuild-interval:PT1H}") Duration rebuildInterval) {
+        this.userRepository = userRepository;
+        this.redisTemplate = redisTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.rebuildInterval = rebuildInterval;
+
+        listenerContainer.addMessageListener(this, REGISTERED_TOPIC);
+
+        this.rejected = Counter.builder("identity.users.email_filter")
+                .tag("result", "rejected")
+                .register(meterRegistry);
+        this.passed = Counter.builder("identity.users.email_filter")
+                .tag("result", "passed")
+                .register(meterRegistry);
+        Gauge.builder("identity.users.email_filter.bytes", this, filter -> {
+                    BloomFilter bloom = filter.current;
+                    return bloom != null ? bloom.bitCount() / 8.0 : 0;
+                })
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleRebuilds() {
+        rebuilder.scheduleWithFixedDelay(this::rebuildSafely, 0, rebuildInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * False means the email is certainly not registered.
+     */
+    public boolean mightContain(String email) {
+        BloomFilter bloom = current;
+        if (bloom == null || email == null) {
+            return true;
+        }
+        boolean result = bloom.mightContain(normalize(email));
+        (result ? passed : rejected).increment();
+        return result;
+    }
+
+    /**
+     * Adds the email on this node and announces it to the others. Callers add before writing the
+     * email, so a failed announcement propagates and fails the write; otherwise the other nodes
+     * would report the email as certainly not registered until their next rebuild.
+     */
+    public void add(String email) {
+        String normalizedEmail = normalize(email);
+        addLocal(normalizedEmail);
+        redisTemplate.convertAndSend(REGISTERED_TOPIC.getTopic(), normalizedEmail);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        addLocal(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    private void addLocal(String normalizedEmail) {
+        synchronized (lock) {
+            BloomFilter bloom = current;
+            if (bloom != null) {
+                bloom.put(normalizedEmail);
+            }
+            if (building != null) {
+                building.put(normalizedEmail);
+            }
+            journal.add(normalizedEmail);
+        }
+    }
+
+    void rebuild() {
+        long started = System.nanoTime();
+        long users = userRepository.count();
+        BloomFilter next = BloomFilter.create(Math.max(expectedInsertions, users + users / 4), falsePositiveRate);
+
+        // Registered first, so emails added while the table is scanned land in the new filter too
+        synchronized (lock) {
+            previousJournal = journal;
+            journal = new HashSet<>();
+            building = next;
+        }
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<String> emails = userRepository.streamAllEmails()) {
+                    emails.forEach(email -> next.put(normalize(email)));
+                }
+            });
+            synchronized (lock) {
+                // Adds whose transaction may have committed after the scan's snapshot was taken
+                previousJournal.forEach(next::put);
+                current = next;
+            }
+        } finally {
+            synchronized (lock) {
+                building = null;
+                if (current != next) {
+                    // Failed rebuild: keep the older adds for the next attempt
+                    journal.addAll(previousJournal);
+                }
+            }
+        }
+
+        log.info("Rebuilt registered email filter: {} users, {} KiB, {} hashes in {} ms",
+                users, next.bitCount() / 8 / 1024, next.hashCount(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    private void rebuildSafely() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.warn("Failed to rebuild registered email filter, keeping the previous one", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -4,15 +4,20 @@ import com.beaver.auth.cookie.AuthCookieService;
 import com.beaver.auth.roles.Role;
 import com.beaver.auth.roles.RequiresRole;
 import com.beaver.identity.auth.dto.AuthResponse;
+import com.beaver.identity.common.exception.InvalidUserDataException;
 import com.beaver.identity.common.mapper.GenericMapper;
 import com.beaver.identity.membership.dto.WorkspaceMembershipDto;
 import com.beaver.identity.user.dto.UpdateUser;
 import com.beaver.identity.user.dto.UpdateEmail;
 import com.beaver.identity.user.dto.UpdatePassword;
 import com.beaver.identity.membership.MembershipService;
-import com.beaver.identity.membership.entity.WorkspaceMembership;
+import com.beaver.identity.membership.dto.MembershipPage;
+import com.beaver.identity.membership.dto.MembershipSnapshot;
 import com.beaver.identity.user.dto.UserDto;
+import com.beaver.identity.user.dto.UserSnapshot;
 import com.beaver.identity.user.entity.User;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -20,8 +25,12 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Slf4j
@@ -30,15 +39,19 @@ import java.util.UUID;
 @RequestMapping("/self")
 public class UserController {
 
+    private static final int MAX_WORKSPACES_PAGE_SIZE = 500;
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final UserService userService;
     private final GenericMapper mapper;
     private final MembershipService membershipService;
     private final AuthCookieService cookieService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
     @RequiresRole(Role.READ)
     public ResponseEntity<UserDto> getSelf(@RequestHeader("X-User-Id") UUID id) {
-        User user = userService.findById(id);
+        UserSnapshot user = userService.findById(id);
         return ResponseEntity.ok(mapper.toDto(user, UserDto.class));
     }
 
@@ -48,7 +61,7 @@ public class UserController {
             @RequestHeader("X-User-Id") UUID id,
             @Valid @RequestBody UpdateUser updateUser)
     {
-        User user = userService.updateUser(id, updateUser);
+        UserSnapshot user = userService.updateUser(id, updateUser);
         return ResponseEntity.ok(mapper.toDto(user, UserDto.class));
     }
 
@@ -59,11 +72,49 @@ public class UserController {
         return ResponseEntity.ok("User deleted with the following email: " + deletedUser.getEmail());
     }
 
+    /**
+     * Without {@code limit}, returns every active membership: from the cache for most users, or
+     * streamed element by element from a database cursor for users with too many to cache.
+     * With {@code limit}, returns one page and puts the next page's cursor in {@code X-Next-Cursor}.
+     */
     @GetMapping(value = "/workspaces", produces = MediaType.APPLICATION_JSON_VALUE)
     @RequiresRole(Role.READ)
-    public ResponseEntity<List<WorkspaceMembershipDto>> getUserWorkspaces(@RequestHeader("X-User-Id") UUID userId) {
-        List<WorkspaceMembership> memberships = membershipService.findActiveByUserId(userId);
-        return ResponseEntity.ok(mapper.toDto(memberships, WorkspaceMembershipDto.class));
+    public ResponseEntity<?> getUserWorkspaces(
+            @RequestHeader("X-User-Id") UUID userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+
+        if (limit != null) {
+            if (limit < 1 || limit > MAX_WORKSPACES_PAGE_SIZE) {
+                throw new InvalidUserDataException("limit must be between 1 and " + MAX_WORKSPACES_PAGE_SIZE);
+            }
+            MembershipPage page = membershipService.findActiveByUserIdPage(userId, cursor, limit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.nextCursor() != null) {
+                response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+            }
+            return response.body(mapper.toDto(page.memberships(), WorkspaceMembershipDto.class));
+        }
+
+        Optional<List<MembershipSnapshot>> cached = membershipService.findCachedActiveByUserId(userId);
+        if (cached.isPresent()) {
+            return ResponseEntity.ok(mapper.toDto(cached.get(), WorkspaceMembershipDto.class));
+        }
+
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+                membershipService.streamActiveByUserId(userId, membership -> {
+                    try {
+                        generator.writeObject(mapper.toDto(membership, WorkspaceMembershipDto.class));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     @PatchMapping("/update-email")
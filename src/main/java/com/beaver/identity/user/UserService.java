@@ -2,16 +2,23 @@ package com.beaver.identity.user;
 
 import com.beaver.auth.jwt.AccessToken;
 import com.beaver.auth.jwt.JwtService;
+import com.beaver.auth.roles.Role;
+import com.beaver.identity.auth.password.PasswordHashingService;
+import com.beaver.identity.auth.session.SessionPrincipalService;
+import com.beaver.identity.auth.session.SessionVersionService;
 import com.beaver.identity.common.exception.NotFoundException;
 import com.beaver.identity.common.exception.InvalidUserDataException;
 import com.beaver.identity.common.mapper.GenericMapper;
+import com.beaver.identity.common.outbox.Outbox;
 import com.beaver.identity.user.dto.UpdateEmail;
+import com.beaver.identity.user.dto.UserChangedEvent;
 import com.beaver.identity.user.dto.UpdatePassword;
 import com.beaver.identity.membership.MembershipService;
-import com.beaver.identity.membership.entity.WorkspaceMembership;
+import com.beaver.identity.membership.enums.MembershipStatus;
+import com.beaver.identity.user.dto.LoginBundle;
 import com.beaver.identity.user.dto.UpdateUser;
+import com.beaver.identity.user.dto.UserSnapshot;
 import com.beaver.identity.user.entity.User;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheConfig;
@@ -19,37 +26,91 @@ import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Optional;
 import java.util.UUID;
-import java.util.List;
 
 @Slf4j
 @Transactional
-@RequiredArgsConstructor
 @Service
 @CacheConfig(cacheNames = "users")
 public class UserService {
 
+    public static final String LOGIN_BUNDLES_CACHE = "login_bundles";
+
     private final IUserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtService jwtService;
     private final MembershipService membershipService;
     private final GenericMapper mapper;
     private final CacheManager cacheManager;
+    private final SessionPrincipalService sessionPrincipalService;
+    private final SessionVersionService sessionVersionService;
+    private final RegisteredEmailFilter registeredEmailFilter;
+    private final Outbox outbox;
+    private final TransactionTemplate transactionTemplate;
+
+    public UserService(IUserRepository userRepository,
+                       PasswordHashingService passwordHashingService,
+                       JwtService jwtService,
+                       MembershipService membershipService,
+                       GenericMapper mapper,
+                       CacheManager cacheManager,
+                       SessionPrincipalService sessionPrincipalService,
+                       SessionVersionService sessionVersionService,
+                       RegisteredEmailFilter registeredEmailFilter,
+                       Outbox outbox,
+                       PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.passwordHashingService = passwordHashingService;
+        this.jwtService = jwtService;
+        this.membershipService = membershipService;
+        this.mapper = mapper;
+        this.cacheManager = cacheManager;
+        this.sessionPrincipalService = sessionPrincipalService;
+        this.sessionVersionService = sessionVersionService;
+        this.registeredEmailFilter = registeredEmailFilter;
+        this.outbox = outbox;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
 
     @Transactional(readOnly = true)
-    @Cacheable(key = "'email:' + #email")
-    public Optional<User> findByEmail(String email) {
-        return userRepository.findByEmail(email);
+    @Cacheable(key = "'email:' + #email", sync = true, condition = "@registeredEmailFilter.mightContain(#email)")
+    public Optional<UserSnapshot> findByEmail(String email) {
+        if (!registeredEmailFilter.mightContain(email)) {
+            return Optional.empty();
+        }
+        return userRepository.findByEmail(email).map(UserSnapshot::from);
     }
 
     @Transactional(readOnly = true)
-    @Cacheable(key = "'id:' + #id")
-    public User findById(UUID id) {
+    @Cacheable(cacheNames = LOGIN_BUNDLES_CACHE, key = "'email:' + #email", sync = true,
+            condition = "@registeredEmailFilter.mightContain(#email)")
+    public Optional<LoginBundle> findLoginBundle(String email) {
+        if (!registeredEmailFilter.mightContain(email)) {
+            return Optional.empty();
+        }
+        return LoginBundle.fromRows(userRepository.findLoginRowsByEmail(email, MembershipStatus.ACTIVE));
+    }
+
+    @Transactional(readOnly = true)
+    @Cacheable(key = "'id:' + #id", sync = true)
+    public UserSnapshot findById(UUID id) {
+        return UserSnapshot.from(findEntityById(id));
+    }
+
+    /**
+     * Loads the managed entity, for callers that need to attach it to another entity. Never cached.
+     */
+    @Transactional(readOnly = true)
+    public User findEntityById(UUID id) {
         return userRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("User not found"));
     }
@@ -57,77 +118,76 @@ public class UserService {
     @Caching(put = {
             @CachePut(key = "'id:' + #id"),
             @CachePut(key = "'email:' + #result.email")
+    }, evict = {
+            @CacheEvict(cacheNames = LOGIN_BUNDLES_CACHE, key = "'email:' + #result.email")
     })
-    public User updateUser(UUID id, UpdateUser updateRequest) {
+    public UserSnapshot updateUser(UUID id, UpdateUser updateRequest) {
         User existingUser = userRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("User not found"));
 
         mapper.updateEntity(updateRequest, existingUser);
+        sessionPrincipalService.bumpUserVersion(id);
 
-        return userRepository.save(existingUser);
+        User saved = userRepository.save(existingUser);
+        if (updateRequest.name() != null) {
+            outbox.append("user", id, "UserUpdated", UserChangedEvent.from(saved));
+        }
+        return UserSnapshot.from(saved);
     }
 
     @Caching(evict = {
         @CacheEvict(key = "'id:' + #id"),
-        @CacheEvict(key = "'email:' + #result.email")
+        @CacheEvict(key = "'email:' + #result.email"),
+        @CacheEvict(cacheNames = LOGIN_BUNDLES_CACHE, key = "'email:' + #result.email")
     })
     public User deleteUser(UUID id) {
         User existingUser = userRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("User not found"));
 
         userRepository.delete(existingUser);
+        sessionPrincipalService.bumpUserVersion(id);
+        sessionVersionService.revoke(id);
+        outbox.append("user", id, "UserDeleted", UserChangedEvent.from(existingUser));
         return existingUser;
     }
 
-    @Caching(put = {
-            @CachePut(key = "'id:' + #result.id"),
-            @CachePut(key = "'email:' + #result.email")
-    })
-    public User createUser(String email, String password, String name) {
-        if (userRepository.findByEmail(email).isPresent()) {
-            throw new InvalidUserDataException("User with email " + email + " already exists");
-        }
-
-        User user = User.builder()
-                .email(email)
-                .password(passwordEncoder.encode(password))
-                .name(name)
-                .isActive(true)
-                .build();
-
-        return userRepository.save(user);
-    }
-
     @Caching(evict = {
             @CacheEvict(key = "'id:' + #id"),
-            @CacheEvict(key = "'email:' + #result.email")
+            @CacheEvict(key = "'email:' + #result.email"),
+            @CacheEvict(cacheNames = LOGIN_BUNDLES_CACHE, key = "'email:' + #result.email")
     })
     public User updateEmail(UUID id, UpdateEmail updateEmailRequest) {
         User existingUser = userRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("User not found"));
 
-        if (userRepository.findByEmail(updateEmailRequest.email()).isPresent()) {
+        if (registeredEmailFilter.mightContain(updateEmailRequest.email())
+                && userRepository.existsByEmail(updateEmailRequest.email())) {
             throw new InvalidUserDataException("Email already exists");
         }
+        registeredEmailFilter.add(updateEmailRequest.email());
 
+        // After commit: a login evicted earlier would reload the still-committed old row and cache it
         String oldEmail = existingUser.getEmail();
-        var cache = cacheManager.getCache("users");
-        if (cache != null) {
-            cache.evictIfPresent("email:" + oldEmail);
-        }
+        afterCommit(() -> {
+            var cache = cacheManager.getCache("users");
+            if (cache != null) {
+                cache.evictIfPresent("email:" + oldEmail);
+            }
+            evictLoginBundle(oldEmail);
+        });
 
         existingUser.setEmail(updateEmailRequest.email());
-        return userRepository.save(existingUser);
+        sessionPrincipalService.bumpUserVersion(id);
+        User saved = userRepository.save(existingUser);
+        outbox.append("user", id, "UserEmailChanged", UserChangedEvent.from(saved));
+        return saved;
     }
 
     public String updateEmailWithNewToken(UUID userId, UUID workspaceId, UpdateEmail updateEmail) {
         User user = updateEmail(userId, updateEmail);
 
-        List<WorkspaceMembership> memberships = membershipService.findActiveByUserId(userId);
-        WorkspaceMembership currentMembership = memberships.stream()
-                .filter(m -> m.getWorkspace().getId().equals(workspaceId))
-                .findFirst()
-                .orElse(memberships.getFirst());
+        Role role = membershipService.findRole(userId, workspaceId)
+                .orElseThrow(() -> new NotFoundException("Membership not found"));
 
         return jwtService.generateAccessToken(
                 AccessToken.builder()
@@ -135,20 +195,71 @@ public class UserService {
                         .email(user.getEmail())
                         .name(user.getName())
                         .workspaceId(workspaceId.toString())
-                        .role(currentMembership.getRole().toString())
+                        .role(role.name())
                         .build()
         );
     }
 
+    /**
+     * Replaces the stored hash only if it is still the one that was verified. The check and the
+     * write are a single conditional UPDATE, so a background rehash can never overwrite a password
+     * that was changed in the meantime.
+     */
+    public void upgradePasswordHash(UUID id, String email, String expectedHash, String upgradedHash) {
+        if (userRepository.upgradePassword(id, expectedHash, upgradedHash) == 0) {
+            return;
+        }
+        log.debug("Upgraded password hash for user {}", id);
+        afterCommit(() -> evictLoginBundle(email));
+    }
+
+    /**
+     * Verifies and hashes outside any transaction: both BCrypt calls can wait for the hashing pool,
+     * and must not hold a database connection meanwhile. The write then runs in a short transaction
+     * and fails if the password changed after it was verified.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void updatePassword(UUID userId, UpdatePassword updatePasswordRequest) {
-        User existingUser = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("User not found"));
+        String verifiedHash = userRepository.findById(userId)
+                .orElseThrow(() -> new NotFoundException("User not found"))
+                .getPassword();
 
-        if (!passwordEncoder.matches(updatePasswordRequest.currentPassword(), existingUser.getPassword())) {
+        if (!passwordHashingService.matches(updatePasswordRequest.currentPassword(), verifiedHash)) {
             throw new InvalidUserDataException("Invalid current password");
         }
+        String newHash = passwordHashingService.encode(updatePasswordRequest.newPassword());
 
-        existingUser.setPassword(passwordEncoder.encode(updatePasswordRequest.newPassword()));
-        userRepository.save(existingUser);
+        transactionTemplate.executeWithoutResult(status -> {
+            User existingUser = userRepository.findById(userId)
+                    .orElseThrow(() -> new NotFoundException("User not found"));
+            if (!verifiedHash.equals(existingUser.getPassword())) {
+                throw new InvalidUserDataException("Invalid current password");
+            }
+
+            existingUser.setPassword(newHash);
+            userRepository.save(existingUser);
+            afterCommit(() -> evictLoginBundle(existingUser.getEmail()));
+            sessionVersionService.revoke(userId);
+        });
+    }
+
+    private void evictLoginBundle(String email) {
+        var cache = cacheManager.getCache(LOGIN_BUNDLES_CACHE);
+        if (cache != null) {
+            cache.evictIfPresent("email:" + email);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
     }
 }
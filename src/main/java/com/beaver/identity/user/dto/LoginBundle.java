@@ -0,0 +1,60 @@
+package com.beaver.identity.user.dto;
+
+import com.beaver.auth.roles.Role;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Everything login needs about a user, loaded with a single query and cached by email.
+ */
+public record LoginBundle(
+        UUID userId,
+        String email,
+        String name,
+        String passwordHash,
+        UUID lastWorkspaceId,
+        List<Grant> memberships
+) {
+
+    public record Grant(UUID workspaceId, Role role) {
+    }
+
+    public LoginBundle {
+        memberships = List.copyOf(memberships);
+    }
+
+    public static Optional<LoginBundle> fromRows(List<LoginRow> rows) {
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+
+        List<Grant> grants = new ArrayList<>(rows.size());
+        for (LoginRow row : rows) {
+            if (row.getWorkspaceId() != null) {
+                grants.add(new Grant(row.getWorkspaceId(), row.getRoleType()));
+            }
+        }
+
+        LoginRow first = rows.getFirst();
+        return Optional.of(new LoginBundle(
+                first.getUserId(),
+                first.getEmail(),
+                first.getName(),
+                first.getPassword(),
+                first.getLastWorkspaceId(),
+                grants));
+    }
+
+    /**
+     * The membership to sign in to: the last used workspace if still active, otherwise the first one.
+     */
+    public Optional<Grant> defaultMembership() {
+        return memberships.stream()
+                .filter(grant -> grant.workspaceId().equals(lastWorkspaceId))
+                .findFirst()
+                .or(() -> memberships.stream().findFirst());
+    }
+}
@@ -0,0 +1,19 @@
+package com.beaver.identity.user.dto;
+
+import com.beaver.auth.roles.Role;
+
+import java.util.UUID;
+
+/**
+ * One row of the login query: the user columns repeated for each active membership,
+ * or once with null membership columns when the user has none.
+ */
+public interface LoginRow {
+    UUID getUserId();
+    String getEmail();
+    String getName();
+    String getPassword();
+    UUID getLastWorkspaceId();
+    UUID getWorkspaceId();
+    Role getRoleType();
+}
@@ -0,0 +1,18 @@
+package com.beaver.identity.user.dto;
+
+import com.beaver.identity.user.entity.User;
+
+import java.util.UUID;
+
+/**
+ * Outbox payload for user changes.
+ */
+public record UserChangedEvent(
+        UUID id,
+        String email,
+        String name
+) {
+    public static UserChangedEvent from(User user) {
+        return new UserChangedEvent(user.getId(), user.getEmail(), user.getName());
+    }
+}
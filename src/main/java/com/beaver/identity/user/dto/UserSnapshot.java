@@ -0,0 +1,32 @@
+package com.beaver.identity.user.dto;
+
+import com.beaver.identity.user.entity.User;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Immutable view of a user as stored in the users cache: no password hash, no collections.
+ */
+public record UserSnapshot(
+        UUID id,
+        String email,
+        String name,
+        boolean active,
+        UUID lastWorkspaceId,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        UUID updatedBy
+) {
+    public static UserSnapshot from(User user) {
+        return new UserSnapshot(
+                user.getId(),
+                user.getEmail(),
+                user.getName(),
+                user.isActive(),
+                user.getLastWorkspaceId(),
+                user.getCreatedAt(),
+                user.getUpdatedAt(),
+                user.getUpdatedBy());
+    }
+}
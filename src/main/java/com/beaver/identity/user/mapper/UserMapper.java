@@ -0,0 +1,35 @@
+package com.beaver.identity.user.mapper;
+
+import com.beaver.identity.user.dto.UpdateUser;
+import com.beaver.identity.user.dto.UserDto;
+import com.beaver.identity.user.dto.UserSnapshot;
+import com.beaver.identity.user.entity.User;
+import com.beaver.identity.common.mapper.MappingContributor;
+import com.beaver.identity.common.mapper.MappingRegistry;
+import org.mapstruct.Builder;
+import org.mapstruct.Mapper;
+import org.mapstruct.MappingTarget;
+import org.mapstruct.NullValuePropertyMappingStrategy;
+import org.mapstruct.ReportingPolicy;
+
+@Mapper(
+        componentModel = "spring",
+        builder = @Builder(disableBuilder = true),
+        unmappedTargetPolicy = ReportingPolicy.IGNORE,
+        nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE
+)
+public interface UserMapper extends MappingContributor {
+
+    UserDto toDto(User user);
+
+    UserDto toDto(UserSnapshot user);
+
+    void update(UpdateUser updateUser, @MappingTarget User user);
+
+    @Override
+    default void contribute(MappingRegistry registry) {
+        registry.dto(User.class, UserDto.class, this::toDto);
+        registry.dto(UserSnapshot.class, UserDto.class, this::toDto);
+        registry.update(UpdateUser.class, User.class, this::update);
+    }
+}
@@ -4,9 +4,22 @@ import com.beaver.auth.cookie.AuthCookieService;
 import com.beaver.auth.roles.RequiresRole;
 import com.beaver.auth.roles.Role;
 import com.beaver.identity.auth.dto.AuthResponse;
+import com.beaver.identity.common.exception.InvalidUserDataException;
+import com.beaver.identity.common.exception.NotFoundException;
 import com.beaver.identity.common.mapper.GenericMapper;
+import com.beaver.identity.membership.MembershipService;
+import com.beaver.identity.membership.dto.MemberPage;
+import com.beaver.identity.membership.enums.MembershipStatus;
+import com.beaver.identity.membership.invitation.InvitationCsvReader;
+import com.beaver.identity.membership.invitation.InvitationResult;
+import com.beaver.identity.membership.invitation.InvitationRow;
+import com.beaver.identity.membership.invitation.MemberInvitationService;
 import com.beaver.identity.workspace.dto.*;
-import com.beaver.identity.workspace.entity.Workspace;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
@@ -14,24 +27,36 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/workspaces")
 public class WorkspaceController {
 
+    private static final int MAX_MEMBERS_PAGE_SIZE = 200;
+
     private final WorkspaceService workspaceService;
+    private final MembershipService membershipService;
     private final AuthCookieService cookieService;
     private final GenericMapper mapper;
+    private final MemberInvitationService invitationService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<WorkspaceDto> createWorkspace(
             @RequestHeader("X-User-Id") UUID userId,
             @Valid @RequestBody CreateWorkspaceRequest request) {
 
-        Workspace workspace = workspaceService.createWorkspace(request, userId);
+        WorkspaceSnapshot workspace = workspaceService.createWorkspace(request, userId);
         return ResponseEntity.ok(mapper.toDto(workspace, WorkspaceDto.class));
     }
 
@@ -39,7 +64,7 @@ public class WorkspaceController {
     @RequiresRole(Role.READ)
     public ResponseEntity<WorkspaceDto> getWorkspace(
             @RequestHeader("X-Workspace-Id") UUID workspaceId) {
-        Workspace workspace = workspaceService.findById(workspaceId);
+        WorkspaceSnapshot workspace = workspaceService.findById(workspaceId);
         return ResponseEntity.ok(mapper.toDto(workspace, WorkspaceDto.class));
     }
 
@@ -50,21 +75,112 @@ public class WorkspaceController {
             @RequestHeader("X-Workspace-Id") UUID workspaceId,
             @Valid @RequestBody UpdateWorkspaceRequest updateWorkspaceRequest)
     {
-        Workspace workspace = workspaceService.updateWorkspace(userId, workspaceId, updateWorkspaceRequest);
+        WorkspaceSnapshot workspace = workspaceService.updateWorkspace(userId, workspaceId, updateWorkspaceRequest);
         return ResponseEntity.ok(mapper.toDto(workspace, WorkspaceDto.class));
     }
 
-    @PostMapping("/current/members/invite")
+    @GetMapping(value = "/current/members", produces = MediaType.APPLICATION_JSON_VALUE)
+    @RequiresRole(Role.READ)
+    public ResponseEntity<MemberPage> listMembers(
+            @RequestHeader("X-Workspace-Id") UUID workspaceId,
+            @RequestParam(required = false) MembershipStatus status,
+            @RequestParam(required = false) Role role,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+
+        if (limit < 1 || limit > MAX_MEMBERS_PAGE_SIZE) {
+            throw new InvalidUserDataException("limit must be between 1 and " + MAX_MEMBERS_PAGE_SIZE);
+        }
+        return ResponseEntity.ok(membershipService.findMembers(workspaceId, status, role, cursor, limit));
+    }
+
+    @PostMapping(value = "/current/members/invite", produces = MediaType.APPLICATION_JSON_VALUE)
     @RequiresRole(Role.ADMIN)
-    public ResponseEntity<String> inviteMember(
+    public ResponseEntity<InvitationResult> inviteMember(
             @RequestHeader("X-User-Id") UUID userId,
             @RequestHeader("X-Workspace-Id") UUID workspaceId,
             @Valid @RequestBody InviteMemberRequest request) {
 
-        // TODO: Implementation for inviting members
-        return ResponseEntity.ok("Member invited");
+        InvitationResult result = invitationService.invite(workspaceId, new InvitationRow(1, request.email(), request.role()));
+        return switch (result.status()) {
+            case INVITED -> ResponseEntity.ok(result);
+            case USER_NOT_FOUND -> throw new NotFoundException("User not found");
+            case ALREADY_MEMBER -> throw new InvalidUserDataException("User is already a member of this workspace");
+            case INVALID_EMAIL -> throw new InvalidUserDataException("Email must be valid");
+            case INVALID_ROLE -> throw new InvalidUserDataException("Invalid role: " + request.role());
+        };
     }
 
+    /**
+     * Invites a JSON array of {@code {"email", "role"}} objects, read element by element.
+     * Results are written back as NDJSON, one line per input row, as each chunk is committed.
+     */
+    @PostMapping(value = "/current/members/invite/bulk",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @RequiresRole(Role.ADMIN)
+    public void inviteMembers(
+            @RequestHeader("X-User-Id") UUID userId,
+            @RequestHeader("X-Workspace-Id") UUID workspaceId,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+
+        try (MappingIterator<InviteMemberRequest> requests = objectMapper
+                .readerFor(InviteMemberRequest.class)
+                .readValues(request.getInputStream())) {
+            AtomicLong line = new AtomicLong();
+            Iterator<InvitationRow> rows = new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return requests.hasNext();
+                }
+
+                @Override
+                public InvitationRow next() {
+                    InviteMemberRequest next = requests.next();
+                    return new InvitationRow(line.incrementAndGet(), next.email(), next.role());
+                }
+            };
+            streamInvitations(workspaceId, rows, response);
+        }
+    }
+
+    /**
+     * Invites the rows of an {@code email,role} CSV file, read line by line.
+     * Results are written back as NDJSON, one line per input row, as each chunk is committed.
+     */
+    @PostMapping(value = "/current/members/invite/bulk",
+            consumes = "text/csv",
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @RequiresRole(Role.ADMIN)
+    public void inviteMembersCsv(
+            @RequestHeader("X-User-Id") UUID userId,
+            @RequestHeader("X-Workspace-Id") UUID workspaceId,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+
+        try (BufferedReader reader = request.getReader()) {
+            streamInvitations(workspaceId, new InvitationCsvReader(reader), response);
+        }
+    }
+
+    private void streamInvitations(UUID workspaceId, Iterator<InvitationRow> rows, HttpServletResponse response)
+            throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        PrintWriter out = response.getWriter();
+        invitationService.inviteAll(workspaceId, rows, result -> {
+            try {
+                out.write(objectMapper.writeValueAsString(result));
+                out.write('\n');
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        out.flush();
+    }
 
     @PostMapping(value = "/switch-workspace", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<AuthResponse> switchWorkspace(
@@ -3,18 +3,22 @@ package com.beaver.identity.workspace;
 import com.beaver.auth.exceptions.AccessDeniedException;
 import com.beaver.auth.jwt.AccessToken;
 import com.beaver.auth.jwt.JwtService;
-import com.beaver.auth.jwt.RefreshToken;
 import com.beaver.auth.roles.Role;
+import com.beaver.identity.auth.token.RefreshTokenIssuer;
 import com.beaver.identity.common.exception.NotFoundException;
+import com.beaver.identity.common.outbox.Outbox;
 import com.beaver.identity.common.mapper.GenericMapper;
 import com.beaver.identity.membership.MembershipService;
 import com.beaver.identity.membership.entity.WorkspaceMembership;
 import com.beaver.identity.role.service.WorkspaceRoleService;
 import com.beaver.identity.user.UserService;
 import com.beaver.identity.user.dto.UpdateUser;
+import com.beaver.identity.user.dto.UserSnapshot;
 import com.beaver.identity.user.entity.User;
 import com.beaver.identity.workspace.dto.CreateWorkspaceRequest;
 import com.beaver.identity.workspace.dto.UpdateWorkspaceRequest;
+import com.beaver.identity.workspace.dto.WorkspaceChangedEvent;
+import com.beaver.identity.workspace.dto.WorkspaceSnapshot;
 import com.beaver.identity.workspace.enums.PlanType;
 import com.beaver.identity.workspace.entity.Workspace;
 import com.beaver.identity.workspace.enums.WorkspaceStatus;
@@ -27,7 +31,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -44,9 +47,11 @@ public class WorkspaceService {
     private final JwtService jwtService;
     private final WorkspaceRoleService roleService;
     private final GenericMapper mapper;
+    private final Outbox outbox;
+    private final RefreshTokenIssuer refreshTokenIssuer;
 
     @CachePut(key = "'id:' + #result.id")
-    public Workspace createWorkspace(CreateWorkspaceRequest request, UUID ownerId) {
+    public WorkspaceSnapshot createWorkspace(CreateWorkspaceRequest request, UUID ownerId) {
         log.info("Creating workspace '{}' for user: {}", request.name(), ownerId);
 
         Workspace workspace = Workspace.builder()
@@ -60,86 +65,56 @@ public class WorkspaceService {
 
         roleService.createDefaultRoles(workspace.getId(), workspace);
 
-        User owner = userService.findById(ownerId);
+        User owner = userService.findEntityById(ownerId);
         WorkspaceMembership membership = membershipService.addUserToWorkspace(owner, workspace, Role.OWNER);
         log.info("Added user {} as owner of workspace {} with membership {}", ownerId, workspace.getId(), membership.getId());
-        membershipService.evictCache(ownerId);
 
-        return workspace;
+        return WorkspaceSnapshot.from(workspace);
     }
 
     @Transactional(readOnly = true)
-    @Cacheable(key = "'id:' + #workspaceId")
-    public Workspace findById(UUID workspaceId) {
+    @Cacheable(key = "'id:' + #workspaceId", sync = true)
+    public WorkspaceSnapshot findById(UUID workspaceId) {
         return workspaceRepository.findById(workspaceId)
+                .map(WorkspaceSnapshot::from)
                 .orElseThrow(() -> new NotFoundException("Workspace not found: " + workspaceId));
     }
 
     @CachePut(key = "'id:' + #workspaceId")
-    public Workspace updateWorkspace(UUID userId, UUID workspaceId, UpdateWorkspaceRequest updateWorkspaceRequest) {
+    public WorkspaceSnapshot updateWorkspace(UUID userId, UUID workspaceId, UpdateWorkspaceRequest updateWorkspaceRequest) {
         Workspace existingWorkspace = workspaceRepository.findById(workspaceId)
                 .orElseThrow(() -> new NotFoundException("Workspace not found"));
 
         mapper.updateEntity(updateWorkspaceRequest, existingWorkspace);
         Workspace updatedWorkspace = workspaceRepository.save(existingWorkspace);
-        membershipService.evictCache(userId);
+        membershipService.invalidateWorkspace(workspaceId);
+        outbox.append("workspace", workspaceId, "WorkspaceUpdated", WorkspaceChangedEvent.from(updatedWorkspace));
 
-        return updatedWorkspace;
-    }
-
-    @CachePut(key = "'id:' + #result.workspace.id")
-    public WorkspaceMembership createDefaultWorkspace(User user) {
-        log.info("Creating default workspace for user: {}", user.getId());
-
-        String workspaceName = user.getName() + "'s Workspace";
-        Workspace workspace = Workspace.builder()
-                .name(workspaceName)
-                .status(WorkspaceStatus.ACTIVE)
-                .plan(PlanType.STARTER)
-                .build();
-
-        workspace = workspaceRepository.save(workspace);
-        log.info("Created default workspace with ID: {}", workspace.getId());
-
-        roleService.createDefaultRoles(workspace.getId(), workspace);
-
-        WorkspaceMembership membership = membershipService.addUserToWorkspace(user, workspace, Role.OWNER);
-        log.info("Added user {} as owner of default workspace {} with membership {}",
-                user.getId(), workspace.getId(), membership.getId());
-
-        return membership;
+        return WorkspaceSnapshot.from(updatedWorkspace);
     }
 
     public Map<String, String> switchWorkspace(UUID userId, UUID workspaceId) {
         log.info("Attempting to switch workspace '{}' for user '{}'", workspaceId, userId);
 
-        User user = userService.findById(userId);
+        UserSnapshot user = userService.findById(userId);
 
-        List<WorkspaceMembership> memberships = membershipService.findActiveByUserId(user.getId());
-        WorkspaceMembership membership = memberships.stream()
-                .filter(m -> m.getWorkspace().getId().equals(workspaceId))
-                .findFirst()
+        Role role = membershipService.findRole(user.id(), workspaceId)
                 .orElseThrow(() -> new AccessDeniedException("User does not have access to this workspace"));
 
         log.info("Access granted for workspace '{}' for user '{}'", workspaceId, userId);
-        userService.updateUser(user.getId(), UpdateUser.builder().lastWorkspaceId(membership.getWorkspace().getId()).build());
+        userService.updateUser(user.id(), UpdateUser.builder().lastWorkspaceId(workspaceId).build());
 
         String newAccessToken = jwtService.generateAccessToken(
                 AccessToken.builder()
-                        .userId(user.getId().toString())
-                        .email(user.getEmail())
-                        .name(user.getName())
-                        .workspaceId(membership.getWorkspace().getId().toString())
-                        .role(membership.getRole().toString())
+                        .userId(user.id().toString())
+                        .email(user.email())
+                        .name(user.name())
+                        .workspaceId(workspaceId.toString())
+                        .role(role.name())
                         .build()
         );
 
-        String newRefreshToken = jwtService.generateRefreshToken(
-                RefreshToken.builder()
-                        .userId(user.getId().toString())
-                        .workspaceId(membership.getWorkspace().getId().toString())
-                        .build()
-        );
+        String newRefreshToken = refreshTokenIssuer.issue(user.id(), workspaceId);
 
         Map<String, String> tokens = new HashMap<>();
         tokens.put("accessToken", newAccessToken);
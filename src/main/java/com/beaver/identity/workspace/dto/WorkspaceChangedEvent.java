@@ -0,0 +1,21 @@
+package com.beaver.identity.workspace.dto;
+
+import com.beaver.identity.workspace.entity.Workspace;
+import com.beaver.identity.workspace.enums.PlanType;
+import com.beaver.identity.workspace.enums.WorkspaceStatus;
+
+import java.util.UUID;
+
+/**
+ * Outbox payload for workspace changes.
+ */
+public record WorkspaceChangedEvent(
+        UUID id,
+        String name,
+        WorkspaceStatus status,
+        PlanType plan
+) {
+    public static WorkspaceChangedEvent from(Workspace workspace) {
+        return new WorkspaceChangedEvent(workspace.getId(), workspace.getName(), workspace.getStatus(), workspace.getPlan());
+    }
+}
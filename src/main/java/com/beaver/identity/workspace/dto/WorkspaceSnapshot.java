@@ -0,0 +1,34 @@
+package com.beaver.identity.workspace.dto;
+
+import com.beaver.identity.workspace.entity.Workspace;
+import com.beaver.identity.workspace.enums.PlanType;
+import com.beaver.identity.workspace.enums.WorkspaceStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Immutable view of a workspace as stored in the workspaces cache, without roles or memberships.
+ */
+public record WorkspaceSnapshot(
+        UUID id,
+        String name,
+        WorkspaceStatus status,
+        PlanType plan,
+        LocalDateTime trialEndsAt,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        UUID updatedBy
+) {
+    public static WorkspaceSnapshot from(Workspace workspace) {
+        return new WorkspaceSnapshot(
+                workspace.getId(),
+                workspace.getName(),
+                workspace.getStatus(),
+                workspace.getPlan(),
+                workspace.getTrialEndsAt(),
+                workspace.getCreatedAt(),
+                workspace.getUpdatedAt(),
+                workspace.getUpdatedBy());
+    }
+}
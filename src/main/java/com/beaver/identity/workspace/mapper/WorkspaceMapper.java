@@ -0,0 +1,35 @@
+package com.beaver.identity.workspace.mapper;
+
+import com.beaver.identity.workspace.dto.UpdateWorkspaceRequest;
+import com.beaver.identity.workspace.dto.WorkspaceDto;
+import com.beaver.identity.workspace.dto.WorkspaceSnapshot;
+import com.beaver.identity.workspace.entity.Workspace;
+import com.beaver.identity.common.mapper.MappingContributor;
+import com.beaver.identity.common.mapper.MappingRegistry;
+import org.mapstruct.Builder;
+import org.mapstruct.Mapper;
+import org.mapstruct.MappingTarget;
+import org.mapstruct.NullValuePropertyMappingStrategy;
+import org.mapstruct.ReportingPolicy;
+
+@Mapper(
+        componentModel = "spring",
+        builder = @Builder(disableBuilder = true),
+        unmappedTargetPolicy = ReportingPolicy.IGNORE,
+        nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE
+)
+public interface WorkspaceMapper extends MappingContributor {
+
+    WorkspaceDto toDto(Workspace workspace);
+
+    WorkspaceDto toDto(WorkspaceSnapshot workspace);
+
+    void update(UpdateWorkspaceRequest updateWorkspaceRequest, @MappingTarget Workspace workspace);
+
+    @Override
+    default void contribute(MappingRegistry registry) {
+        registry.dto(Workspace.class, WorkspaceDto.class, this::toDto);
+        registry.dto(WorkspaceSnapshot.class, WorkspaceDto.class, this::toDto);
+        registry.update(UpdateWorkspaceRequest.class, Workspace.class, this::update);
+    }
+}
@@ -0,0 +1,4 @@
+-- Keyset pagination over a workspace's members, ordered by join time.
+-- Replaces the workspace_id index, which is a prefix of this one.
+CREATE INDEX idx_workspace_memberships_workspace_joined ON workspace_memberships(workspace_id, joined_at, id);
+DROP INDEX idx_workspace_memberships_workspace_id;
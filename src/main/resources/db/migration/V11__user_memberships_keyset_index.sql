@@ -0,0 +1,4 @@
+-- Keyset pagination and streaming over a user's memberships, ordered by join time.
+-- Replaces the user_id index, which is a prefix of this one.
+CREATE INDEX idx_workspace_memberships_user_joined ON workspace_memberships(user_id, joined_at, id);
+DROP INDEX idx_workspace_memberships_user_id;
@@ -0,0 +1,56 @@
+-- Announce membership changes on the membership_changes channel for the in-memory index.
+-- Payload: m,<user_id>,<workspace_id>,<role_type or empty when no longer active>
+CREATE OR REPLACE FUNCTION notify_membership_change() RETURNS TRIGGER AS $$
+DECLARE
+    new_role VARCHAR(20) := '';
+BEGIN
+    IF TG_OP <> 'INSERT' AND (TG_OP = 'DELETE'
+            OR OLD.user_id <> NEW.user_id OR OLD.workspace_id <> NEW.workspace_id) THEN
+        PERFORM pg_notify('membership_changes', 'm,' || OLD.user_id || ',' || OLD.workspace_id || ',');
+    END IF;
+
+    IF TG_OP <> 'DELETE' THEN
+        IF NEW.status = 'ACTIVE' THEN
+            SELECT role_type INTO new_role FROM roles WHERE id = NEW.role_id;
+        END IF;
+        PERFORM pg_notify('membership_changes', 'm,' || NEW.user_id || ',' || NEW.workspace_id || ',' || coalesce(new_role, ''));
+    END IF;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_workspace_memberships_notify_insert
+    AFTER INSERT ON workspace_memberships
+    FOR EACH ROW WHEN (NEW.status = 'ACTIVE')
+    EXECUTE FUNCTION notify_membership_change();
+
+CREATE TRIGGER trg_workspace_memberships_notify_update
+    AFTER UPDATE ON workspace_memberships
+    FOR EACH ROW WHEN (OLD.status IS DISTINCT FROM NEW.status
+        OR OLD.role_id IS DISTINCT FROM NEW.role_id
+        OR OLD.user_id IS DISTINCT FROM NEW.user_id
+        OR OLD.workspace_id IS DISTINCT FROM NEW.workspace_id)
+    EXECUTE FUNCTION notify_membership_change();
+
+CREATE TRIGGER trg_workspace_memberships_notify_delete
+    AFTER DELETE ON workspace_memberships
+    FOR EACH ROW WHEN (OLD.status = 'ACTIVE')
+    EXECUTE FUNCTION notify_membership_change();
+
+-- A role changing type changes the role of every member holding it: reload the workspace.
+-- Payload: w,<workspace_id>
+CREATE OR REPLACE FUNCTION notify_role_change() RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM pg_notify('membership_changes', 'w,' || NEW.workspace_id);
+    IF OLD.workspace_id <> NEW.workspace_id THEN
+        PERFORM pg_notify('membership_changes', 'w,' || OLD.workspace_id);
+    END IF;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_roles_notify_update
+    AFTER UPDATE ON roles
+    FOR EACH ROW WHEN (OLD.role_type IS DISTINCT FROM NEW.role_type
+        OR OLD.workspace_id IS DISTINCT FROM NEW.workspace_id)
+    EXECUTE FUNCTION notify_role_change();
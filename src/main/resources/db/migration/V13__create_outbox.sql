@@ -0,0 +1,13 @@
+-- Transactional outbox: events are inserted in the same transaction as the change they describe
+-- and deleted by the relay once published. The bigserial id orders events of one aggregate.
+CREATE TABLE outbox_events (
+    id BIGSERIAL PRIMARY KEY,
+    aggregate_type VARCHAR(64) NOT NULL,
+    aggregate_id UUID NOT NULL,
+    event_type VARCHAR(64) NOT NULL,
+    payload JSONB NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Create indexes for performance
+CREATE INDEX idx_outbox_events_aggregate ON outbox_events(aggregate_id, id);
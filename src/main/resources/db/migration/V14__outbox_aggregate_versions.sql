@@ -0,0 +1,9 @@
+-- Per-aggregate event sequence. Outbox.append bumps the aggregate's row before inserting the event,
+-- which holds the row lock until commit: a second transaction appending for the same aggregate waits,
+-- so its event gets both a higher version and a higher id, and commits after the first one.
+CREATE TABLE outbox_aggregates (
+    aggregate_id UUID PRIMARY KEY,
+    version BIGINT NOT NULL
+);
+
+ALTER TABLE outbox_events ADD COLUMN aggregate_version BIGINT NOT NULL DEFAULT 0;
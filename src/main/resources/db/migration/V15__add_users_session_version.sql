@@ -0,0 +1,3 @@
+-- Durable per-user session version; Redis and the in-process caches only mirror it.
+-- Revoking a user's sessions increments it in the revoking transaction.
+ALTER TABLE users ADD COLUMN session_version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,26 @@
+-- Time-ordered (version 7) UUIDs for new rows, matching the ids generated by the application.
+-- Existing version 4 keys are left as they are; both are plain UUID values.
+CREATE OR REPLACE FUNCTION uuid_generate_v7() RETURNS UUID AS $$
+DECLARE
+    unix_ms BIGINT := (EXTRACT(EPOCH FROM clock_timestamp()) * 1000)::BIGINT;
+    -- Random bits come from a v4 UUID, which is built in unlike pgcrypto's gen_random_bytes
+    bytes BYTEA := uuid_send(gen_random_uuid());
+BEGIN
+    -- 48-bit big-endian millisecond timestamp
+    bytes := set_byte(bytes, 0, ((unix_ms >> 40) & 255)::INT);
+    bytes := set_byte(bytes, 1, ((unix_ms >> 32) & 255)::INT);
+    bytes := set_byte(bytes, 2, ((unix_ms >> 24) & 255)::INT);
+    bytes := set_byte(bytes, 3, ((unix_ms >> 16) & 255)::INT);
+    bytes := set_byte(bytes, 4, ((unix_ms >> 8) & 255)::INT);
+    bytes := set_byte(bytes, 5, (unix_ms & 255)::INT);
+    -- Version 7 and RFC 9562 variant bits
+    bytes := set_byte(bytes, 6, (get_byte(bytes, 6) & 15) | 112);
+    bytes := set_byte(bytes, 8, (get_byte(bytes, 8) & 63) | 128);
+    RETURN encode(bytes, 'hex')::UUID;
+END
+$$ LANGUAGE plpgsql VOLATILE;
+
+ALTER TABLE users ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE workspaces ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE roles ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE workspace_memberships ALTER COLUMN id SET DEFAULT uuid_generate_v7();
@@ -0,0 +1,31 @@
+-- Append-only audit trail of committed changes, written in batches by the application
+CREATE TABLE audit_log (
+    id UUID PRIMARY KEY,
+    occurred_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    actor_id UUID NOT NULL,
+    action VARCHAR(10) NOT NULL CHECK (action IN ('CREATE', 'UPDATE', 'DELETE')),
+    entity_type VARCHAR(64) NOT NULL,
+    entity_id UUID,
+    changed_properties TEXT[],
+    request_id VARCHAR(64),
+    client_ip VARCHAR(64)
+);
+
+-- Reject any attempt to rewrite history
+CREATE OR REPLACE FUNCTION audit_log_append_only() RETURNS TRIGGER AS $$
+BEGIN
+    RAISE EXCEPTION 'audit_log is append-only';
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_audit_log_append_only
+    BEFORE UPDATE OR DELETE ON audit_log
+    FOR EACH ROW EXECUTE FUNCTION audit_log_append_only();
+
+CREATE TRIGGER trg_audit_log_no_truncate
+    BEFORE TRUNCATE ON audit_log
+    FOR EACH STATEMENT EXECUTE FUNCTION audit_log_append_only();
+
+-- Create indexes for performance
+CREATE INDEX idx_audit_log_entity ON audit_log(entity_type, entity_id, occurred_at);
+CREATE INDEX idx_audit_log_actor ON audit_log(actor_id, occurred_at);
@@ -0,0 +1,141 @@
+package com.beaver.identity.auth.session;
+
+import com.beaver.auth.roles.Role;
+import com.beaver.identity.membership.IMembershipRepository;
+import com.beaver.identity.membership.dto.PrincipalRow;
+import com.beaver.identity.membership.enums.MembershipStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SessionPrincipalServiceTest {
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID workspaceId = UUID.randomUUID();
+
+    private final Map<String, String> redis = new ConcurrentHashMap<>();
+    private final AtomicReference<Role> databaseRole = new AtomicReference<>(Role.OWNER);
+
+    private ValueOperations<String, String> valueOperations;
+    private IMembershipRepository membershipRepository;
+    private SessionPrincipalService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        valueOperations = mock(ValueOperations.class);
+        when(valueOperations.multiGet(anyList())).thenAnswer(invocation ->
+                ((List<String>) invocation.getArgument(0)).stream().map(redis::get).toList());
+        doAnswer(invocation -> redis.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(valueOperations).set(anyString(), anyString(), any(Duration.class));
+
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+
+        membershipRepository = mock(IMembershipRepository.class);
+        when(membershipRepository.findPrincipal(userId, workspaceId, MembershipStatus.ACTIVE)).thenAnswer(invocation ->
+                Optional.of(new PrincipalRow("john.bob@example.com", "John Bob", databaseRole.get())));
+
+        service = new SessionPrincipalService(
+                redisTemplate, membershipRepository, new ObjectMapper().findAndRegisterModules(), Duration.ofMinutes(30));
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void servesRepeatedRefreshesFromTheCachedEntry() {
+        assertThat(service.findPrincipal(userId, workspaceId)).map(SessionPrincipal::role).contains(Role.OWNER);
+        assertThat(service.findPrincipal(userId, workspaceId)).map(SessionPrincipal::role).contains(Role.OWNER);
+
+        verify(membershipRepository, times(1)).findPrincipal(userId, workspaceId, MembershipStatus.ACTIVE);
+    }
+
+    @Test
+    void neverIssuesTheOldRoleAfterARoleChange() {
+        assertThat(service.findPrincipal(userId, workspaceId)).map(SessionPrincipal::role).contains(Role.OWNER);
+
+        databaseRole.set(Role.READ);
+        service.bumpUserVersion(userId);
+
+        assertThat(service.findPrincipal(userId, workspaceId)).map(SessionPrincipal::role).contains(Role.READ);
+    }
+
+    @Test
+    void workspaceVersionBumpInvalidatesEntry() {
+        service.findPrincipal(userId, workspaceId);
+
+        databaseRole.set(Role.WRITE);
+        service.bumpWorkspaceVersion(workspaceId);
+
+        assertThat(service.findPrincipal(userId, workspaceId)).map(SessionPrincipal::role).contains(Role.WRITE);
+    }
+
+    @Test
+    void bumpIsDeferredUntilTheWritingTransactionCommits() {
+        service.findPrincipal(userId, workspaceId);
+
+        TransactionSynchronizationManager.initSynchronization();
+        databaseRole.set(Role.READ);
+        service.bumpUserVersion(userId);
+
+        // A refresh racing the uncommitted write must not cache anything tagged with the new version
+        assertThat(redis).doesNotContainKey("principal:version:user:" + userId);
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(service.findPrincipal(userId, workspaceId)).map(SessionPrincipal::role).contains(Role.READ);
+    }
+
+    @Test
+    void entryLoadedBeforeTheBumpIsRejectedAfterIt() {
+        // Simulates a reader that read version 0, loaded OWNER, and stored its entry after the writer committed
+        databaseRole.set(Role.OWNER);
+        service.findPrincipal(userId, workspaceId);
+        redis.put("principal:version:user:" + userId, "1");
+        databaseRole.set(Role.READ);
+
+        assertThat(service.findPrincipal(userId, workspaceId)).map(SessionPrincipal::role).contains(Role.READ);
+        verify(membershipRepository, times(2)).findPrincipal(eq(userId), eq(workspaceId), eq(MembershipStatus.ACTIVE));
+    }
+
+    @Test
+    void versionKeysOutliveEveryEntryAndExpire() {
+        service.bumpUserVersion(userId);
+        String first = redis.get("principal:version:user:" + userId);
+        service.bumpUserVersion(userId);
+
+        assertThat(redis.get("principal:version:user:" + userId)).isNotEqualTo(first).isNotEqualTo("0");
+        verify(valueOperations, times(2)).set(eq("principal:version:user:" + userId), anyString(), eq(Duration.ofMinutes(60)));
+    }
+}
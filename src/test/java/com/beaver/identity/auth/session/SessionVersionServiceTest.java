@@ -0,0 +1,132 @@
+package com.beaver.identity.auth.session;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SessionVersionServiceTest {
+
+    private final UUID userId = UUID.randomUUID();
+    private final String key = "session:version:user:" + userId;
+    private final Map<String, String> redis = new ConcurrentHashMap<>();
+
+    private StringRedisTemplate redisTemplate;
+    private JdbcTemplate jdbcTemplate;
+    private SessionVersionService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        when(valueOperations.get(anyString())).thenAnswer(invocation -> redis.get(invocation.<String>getArgument(0)));
+
+        redisTemplate = mock(StringRedisTemplate.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        // Mirrors the RAISE script: only ever moves the stored version forward
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyString(), anyString())).thenAnswer(invocation -> {
+            String scriptKey = invocation.<List<String>>getArgument(1).getFirst();
+            long proposed = Long.parseLong(invocation.getArgument(2));
+            String current = redis.get(scriptKey);
+            if (current != null && Long.parseLong(current) >= proposed) {
+                return Long.parseLong(current);
+            }
+            redis.put(scriptKey, Long.toString(proposed));
+            return proposed;
+        });
+
+        jdbcTemplate = mock(JdbcTemplate.class);
+        service = new SessionVersionService(redisTemplate, jdbcTemplate, mock(RedisMessageListenerContainer.class),
+                new SimpleMeterRegistry(), Duration.ofHours(24), 1_000, Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void servesTheRedisCopyWithoutQueryingTheDatabase() {
+        redis.put(key, "4");
+
+        assertThat(service.current(userId)).isEqualTo(4);
+        verify(jdbcTemplate, never()).queryForList(anyString(), eq(Long.class), any(Object[].class));
+    }
+
+    @Test
+    void reloadsAnExpiredRedisCopyFromTheDatabase() {
+        when(jdbcTemplate.queryForList(startsWith("SELECT session_version"), eq(Long.class), eq(userId)))
+                .thenReturn(List.of(7L));
+
+        assertThat(service.current(userId)).isEqualTo(7);
+        assertThat(redis).containsEntry(key, "7");
+    }
+
+    @Test
+    void failsClosedForUsersThatNoLongerExist() {
+        when(jdbcTemplate.queryForList(startsWith("SELECT session_version"), eq(Long.class), eq(userId)))
+                .thenReturn(List.of());
+
+        assertThat(service.current(userId)).isEqualTo(SessionVersionService.REVOKED);
+    }
+
+    @Test
+    void revocationIsPersistedFirstAndPublishedAfterCommit() {
+        redis.put(key, "2");
+        assertThat(service.current(userId)).isEqualTo(2);
+        when(jdbcTemplate.queryForList(startsWith("UPDATE users SET session_version"), eq(Long.class), eq(userId)))
+                .thenReturn(List.of(3L));
+
+        TransactionSynchronizationManager.initSynchronization();
+        service.revoke(userId);
+
+        assertThat(redis).containsEntry(key, "2");
+        verify(redisTemplate, never()).convertAndSend(anyString(), anyString());
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(redis).containsEntry(key, "3");
+        assertThat(service.current(userId)).isEqualTo(3);
+        verify(redisTemplate).convertAndSend(SessionVersionService.REVOKED_TOPIC.getTopic(), userId.toString());
+    }
+
+    @Test
+    void neverLowersANewerRedisCopy() {
+        redis.put(key, "9");
+        when(jdbcTemplate.queryForList(startsWith("UPDATE users SET session_version"), eq(Long.class), eq(userId)))
+                .thenReturn(List.of(5L));
+
+        service.revoke(userId);
+
+        assertThat(redis).containsEntry(key, "9");
+        assertThat(service.current(userId)).isEqualTo(9);
+    }
+}
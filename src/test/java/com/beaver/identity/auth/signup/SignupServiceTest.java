@@ -0,0 +1,96 @@
+package com.beaver.identity.auth.signup;
+
+import com.beaver.auth.roles.Role;
+import com.beaver.identity.auth.dto.SignupRequest;
+import com.beaver.identity.auth.password.PasswordHashingService;
+import com.beaver.identity.common.audit.AuditEvent;
+import com.beaver.identity.common.audit.AuditTrail;
+import com.beaver.identity.common.exception.UserAlreadyExistsException;
+import com.beaver.identity.user.RegisteredEmailFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SignupServiceTest {
+
+    private SignupWriter signupWriter;
+    private AuditTrail auditTrail;
+    private SignupService signupService;
+
+    @BeforeEach
+    void setUp() {
+        signupWriter = mock(SignupWriter.class);
+        auditTrail = mock(AuditTrail.class);
+        PasswordHashingService passwordHashingService = mock(PasswordHashingService.class);
+        when(passwordHashingService.encode(any())).thenReturn("hash");
+        RegisteredEmailFilter registeredEmailFilter = mock(RegisteredEmailFilter.class);
+        when(registeredEmailFilter.mightContain(anyString())).thenReturn(true);
+
+        signupService = new SignupService(signupWriter, passwordHashingService, registeredEmailFilter,
+                mock(CacheManager.class), mock(PlatformTransactionManager.class), auditTrail);
+    }
+
+    @Test
+    void reportsExistingAndConcurrentlyRegisteredEmailsPerEntry() {
+        when(signupWriter.findExistingEmails(anyList())).thenReturn(Set.of("taken@example.com"));
+        SignupResult created = result("new@example.com");
+        // late@example.com was registered by another request between the check and the insert
+        when(signupWriter.insertAll(anyList())).thenReturn(List.of(created));
+
+        BulkSignupResult result = signupService.signupAll(List.of(
+                new SignupRequest("taken@example.com", "secret", "Taken"),
+                new SignupRequest("new@example.com", "secret", "New"),
+                new SignupRequest("late@example.com", "secret", "Late")));
+
+        assertThat(result.created()).containsExactly(created);
+        assertThat(result.alreadyRegistered()).containsExactlyInAnyOrder("taken@example.com", "late@example.com");
+    }
+
+    @Test
+    void singleSignupLosingTheRaceFails() {
+        when(signupWriter.findExistingEmails(anyList())).thenReturn(Set.of());
+        when(signupWriter.insertAll(anyList())).thenReturn(List.of());
+
+        assertThatThrownBy(() -> signupService.signup(new SignupRequest("late@example.com", "secret", "Late")))
+                .isInstanceOf(UserAlreadyExistsException.class);
+    }
+
+    @Test
+    void auditsEveryRowWritten() {
+        when(signupWriter.findExistingEmails(anyList())).thenReturn(Set.of());
+        SignupResult created = result("new@example.com");
+        when(signupWriter.insertAll(anyList())).thenReturn(List.of(created));
+
+        signupService.signup(new SignupRequest("new@example.com", "secret", "New"));
+
+        ArgumentCaptor<AuditEvent> events = ArgumentCaptor.forClass(AuditEvent.class);
+        verify(auditTrail, atLeastOnce()).record(events.capture());
+        assertThat(events.getAllValues()).extracting(AuditEvent::entityType)
+                .containsOnly("User", "Workspace", "WorkspaceRole", "WorkspaceMembership");
+        assertThat(events.getAllValues()).extracting(AuditEvent::entityId)
+                .contains(created.userId(), created.workspaceId(), created.membershipId())
+                .containsAll(created.roleIds());
+    }
+
+    private static SignupResult result(String email) {
+        List<UUID> roleIds = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        return new SignupResult(UUID.randomUUID(), email, "New", UUID.randomUUID(), Role.OWNER,
+                roleIds, UUID.randomUUID());
+    }
+}
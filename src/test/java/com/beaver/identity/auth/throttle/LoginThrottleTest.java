@@ -0,0 +1,143 @@
+package com.beaver.identity.auth.throttle;
+
+import com.beaver.identity.common.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class LoginThrottleTest {
+
+    private static final String EMAIL = "john.bob@example.com";
+    private static final String ADDRESS = "203.0.113.7";
+
+    /** Key and taken tokens of each script call, per sync. */
+    private final List<Map<String, String>> pushed = new ArrayList<>();
+    /** Cluster-wide level Redis reports per key; unknown keys are reported full. */
+    private final Map<String, String> clusterLevels = new HashMap<>();
+
+    private boolean failNextSync;
+
+    private StringRedisTemplate redisTemplate;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            if (failNextSync) {
+                failNextSync = false;
+                throw new IllegalStateException("NOSCRIPT No matching script");
+            }
+            Map<String, String> calls = new LinkedHashMap<>();
+            StringRedisConnection connection = mock(StringRedisConnection.class, call -> {
+                if (call.getMethod().getName().equals("evalSha")) {
+                    String[] keysAndArgs = (String[]) call.getRawArguments()[3];
+                    calls.put(keysAndArgs[0], keysAndArgs[3]);
+                }
+                return null;
+            });
+            invocation.<RedisCallback<?>>getArgument(0).doInRedis(connection);
+            pushed.add(calls);
+            List<Object> levels = new ArrayList<>();
+            calls.keySet().forEach(key -> levels.add(clusterLevels.getOrDefault(key, "100")));
+            return levels;
+        });
+    }
+
+    @Test
+    void rejectsOnceTheEmailsBucketIsEmptyRegardlessOfCase() {
+        LoginThrottle throttle = throttle(true);
+        throttle.acquire(EMAIL, ADDRESS);
+        throttle.acquire(EMAIL.toUpperCase(), "198.51.100.1");
+
+        assertThatThrownBy(() -> throttle.acquire(" " + EMAIL, "198.51.100.2"))
+                .isInstanceOfSatisfying(TooManyRequestsException.class,
+                        e -> assertThat(e.getRetryAfterSeconds()).isPositive());
+    }
+
+    @Test
+    void rejectsOnceTheAddressBucketIsEmpty() {
+        LoginThrottle throttle = throttle(true);
+        throttle.acquire("a@example.com", ADDRESS);
+        throttle.acquire("b@example.com", ADDRESS);
+        throttle.acquire("c@example.com", ADDRESS);
+
+        assertThatThrownBy(() -> throttle.acquire("d@example.com", ADDRESS))
+                .isInstanceOf(TooManyRequestsException.class);
+    }
+
+    @Test
+    void admitsEverythingWhenDisabled() {
+        LoginThrottle throttle = throttle(false);
+
+        for (int i = 0; i < 10; i++) {
+            assertThatNoException().isThrownBy(() -> throttle.acquire(EMAIL, ADDRESS));
+        }
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void syncsOnlyBucketsThatTookTokens() {
+        LoginThrottle throttle = throttle(true);
+        throttle.acquire(EMAIL, ADDRESS);
+        throttle.acquire(EMAIL, ADDRESS);
+
+        throttle.sync();
+        throttle.sync();
+
+        assertThat(pushed).containsExactly(Map.of(
+                "throttle:login:address:" + ADDRESS, "2",
+                "throttle:login:email:" + EMAIL, "2"));
+        verify(redisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+        verify(redisTemplate, times(1)).execute(any(RedisCallback.class));
+    }
+
+    @Test
+    void lowersLocalBucketsToTheClusterWideLevel() {
+        LoginThrottle throttle = throttle(true);
+        throttle.acquire(EMAIL, ADDRESS);
+        clusterLevels.put("throttle:login:email:" + EMAIL, "0");
+
+        throttle.sync();
+
+        assertThatThrownBy(() -> throttle.acquire(EMAIL, "198.51.100.1"))
+                .isInstanceOf(TooManyRequestsException.class);
+    }
+
+    @Test
+    void pushesTokensAgainAndReloadsTheScriptAfterAFailedSync() {
+        LoginThrottle throttle = throttle(true);
+        throttle.acquire(EMAIL, null);
+        failNextSync = true;
+
+        throttle.sync();
+        throttle.sync();
+
+        assertThat(pushed).containsExactly(Map.of("throttle:login:email:" + EMAIL, "1"));
+        verify(redisTemplate, times(2)).execute(any(RedisCallback.class));
+    }
+
+    private LoginThrottle throttle(boolean enabled) {
+        return new LoginThrottle(redisTemplate, new SimpleMeterRegistry(), enabled, Duration.ofSeconds(1), 1_000,
+                2, Duration.ofMinutes(10), 3, Duration.ofMinutes(1));
+    }
+}
@@ -0,0 +1,65 @@
+package com.beaver.identity.auth.throttle;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    // A power of two keeps the refill arithmetic exact
+    private static final long REFILL_NANOS = 1024;
+
+    // 2 tokens, one refilled every REFILL_NANOS
+    private final TokenBucket bucket = new TokenBucket(2, 1.0 / REFILL_NANOS, 0);
+
+    @Test
+    void takesUpToCapacityAndReportsTheWaitForTheNextToken() {
+        assertThat(bucket.tryTake(0)).isZero();
+        assertThat(bucket.tryTake(0)).isZero();
+
+        assertThat(bucket.tryTake(0)).isEqualTo(REFILL_NANOS);
+        assertThat(bucket.tryTake(REFILL_NANOS / 4)).isEqualTo(3 * REFILL_NANOS / 4);
+    }
+
+    @Test
+    void refillsOverTimeButNotBeyondCapacity() {
+        bucket.tryTake(0);
+        bucket.tryTake(0);
+
+        assertThat(bucket.tryTake(REFILL_NANOS)).isZero();
+        assertThat(bucket.tryTake(REFILL_NANOS)).isPositive();
+
+        assertThat(bucket.tryTake(10 * REFILL_NANOS)).isZero();
+        assertThat(bucket.tryTake(10 * REFILL_NANOS)).isZero();
+        assertThat(bucket.tryTake(10 * REFILL_NANOS)).isPositive();
+    }
+
+    @Test
+    void countsTakenTokensUntilDrained() {
+        bucket.tryTake(0);
+        bucket.tryTake(0);
+        bucket.tryTake(0);
+
+        assertThat(bucket.drainUnsynced()).isEqualTo(2);
+        assertThat(bucket.drainUnsynced()).isZero();
+
+        bucket.restoreUnsynced(2);
+        assertThat(bucket.drainUnsynced()).isEqualTo(2);
+    }
+
+    @Test
+    void reconcileLowersTheLevelToTheClusterWideOne() {
+        bucket.reconcile(0.5, 0);
+
+        assertThat(bucket.tryTake(0)).isPositive();
+    }
+
+    @Test
+    void reconcileNeverRaisesTheLevel() {
+        bucket.tryTake(0);
+        bucket.reconcile(2, 0);
+
+        assertThat(bucket.tryTake(0)).isZero();
+        assertThat(bucket.tryTake(0)).isPositive();
+    }
+}
@@ -0,0 +1,85 @@
+package com.beaver.identity.auth.token;
+
+import com.beaver.auth.exceptions.InvalidRefreshTokenException;
+import com.beaver.auth.jwt.JwtService;
+import com.beaver.auth.jwt.RefreshToken;
+import com.beaver.identity.auth.session.SessionVersionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RefreshTokenIssuerTest {
+
+    // JwtService mints the same JWT for the same user and workspace within one second
+    private static final String JWT = "header.payload.signature";
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID workspaceId = UUID.randomUUID();
+
+    private RefreshTokenRotation rotation;
+    private RefreshTokenIssuer issuer;
+
+    @BeforeEach
+    void setUp() {
+        JwtService jwtService = mock(JwtService.class);
+        when(jwtService.generateRefreshToken(any(RefreshToken.class))).thenReturn(JWT);
+        SessionVersionService sessionVersionService = mock(SessionVersionService.class);
+        when(sessionVersionService.current(userId)).thenReturn(4L);
+        rotation = mock(RefreshTokenRotation.class);
+        issuer = new RefreshTokenIssuer(jwtService, sessionVersionService, rotation);
+    }
+
+    @Test
+    void mintsDistinctTokensForIdenticalJwts() {
+        String first = issuer.issue(userId, workspaceId);
+        String second = issuer.issue(userId, workspaceId);
+
+        assertThat(first).startsWith(JWT + RefreshTokenIssuer.HANDLE_SEPARATOR).isNotEqualTo(second);
+        assertThat(RefreshTokenIssuer.jwtOf(first)).isEqualTo(JWT);
+        verify(rotation).start(eq(first), eq(userId), eq(workspaceId), any(UUID.class), eq(4L));
+        verify(rotation).start(eq(second), eq(userId), eq(workspaceId), any(UUID.class), eq(4L));
+    }
+
+    @Test
+    void handsOutTheSuccessorTheRotationRegistered() {
+        UUID familyId = UUID.randomUUID();
+        String presented = JWT + "~presented";
+        when(rotation.rotate(eq(presented), eq(familyId), anyString())).thenReturn(
+                new RefreshTokenRotation.Result(RefreshTokenRotation.Outcome.RACED, JWT + "~raced"));
+
+        String successor = issuer.rotate(presented, new RefreshClaims(userId, workspaceId, 4L, familyId));
+
+        assertThat(successor).isEqualTo(JWT + "~raced");
+    }
+
+    @Test
+    void rejectsReuse() {
+        UUID familyId = UUID.randomUUID();
+        when(rotation.rotate(anyString(), eq(familyId), anyString())).thenReturn(
+                new RefreshTokenRotation.Result(RefreshTokenRotation.Outcome.REUSED, null));
+
+        assertThatThrownBy(() -> issuer.rotate(JWT + "~used", new RefreshClaims(userId, workspaceId, 4L, familyId)))
+                .isInstanceOf(InvalidRefreshTokenException.class);
+    }
+
+    @Test
+    void exchangesLegacyTokenOnlyOnce() {
+        when(rotation.consumeLegacy(JWT)).thenReturn(true, false);
+        RefreshClaims claims = new RefreshClaims(userId, workspaceId, 0L, null);
+
+        assertThat(issuer.rotate(JWT, claims)).startsWith(JWT + RefreshTokenIssuer.HANDLE_SEPARATOR);
+        assertThatThrownBy(() -> issuer.rotate(JWT, claims)).isInstanceOf(InvalidRefreshTokenException.class);
+        verify(rotation).start(anyString(), eq(userId), eq(workspaceId), any(UUID.class), anyLong());
+    }
+}
@@ -0,0 +1,126 @@
+package com.beaver.identity.auth.token;
+
+import com.beaver.identity.auth.token.RefreshTokenRotation.Outcome;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Testcontainers(disabledWithoutDocker = true)
+class RefreshTokenRotationTest {
+
+    @Container
+    private static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private static final long VALIDITY_MILLIS = 60_000;
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID workspaceId = UUID.randomUUID();
+    private final UUID familyId = UUID.randomUUID();
+
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redisTemplate;
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(REDIS.getHost(), REDIS.getMappedPort(6379)));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void rotatesIntoTheSameFamily() {
+        RefreshTokenRotation rotation = rotation(Duration.ofSeconds(10));
+        String token = token();
+        rotation.start(token, userId, workspaceId, familyId, 2L);
+
+        String successor = token();
+        RefreshTokenRotation.Result result = rotation.rotate(token, familyId, successor);
+
+        assertThat(result).isEqualTo(new RefreshTokenRotation.Result(Outcome.ROTATED, successor));
+        assertThat(rotation.find(successor)).contains(new RefreshClaims(userId, workspaceId, 2L, familyId));
+    }
+
+    @Test
+    void handsOutTheSameSuccessorToARefreshRacingWithinTheGracePeriod() {
+        RefreshTokenRotation rotation = rotation(Duration.ofSeconds(10));
+        String token = token();
+        rotation.start(token, userId, workspaceId, familyId, 0L);
+        String successor = token();
+        rotation.rotate(token, familyId, successor);
+
+        RefreshTokenRotation.Result raced = rotation.rotate(token, familyId, token());
+
+        assertThat(raced).isEqualTo(new RefreshTokenRotation.Result(Outcome.RACED, successor));
+        assertThat(rotation.rotate(successor, familyId, token()).outcome()).isEqualTo(Outcome.ROTATED);
+    }
+
+    @Test
+    void revokesTheFamilyWhenAConsumedTokenIsPresentedAfterTheGracePeriod() throws InterruptedException {
+        RefreshTokenRotation rotation = rotation(Duration.ofMillis(50));
+        String token = token();
+        rotation.start(token, userId, workspaceId, familyId, 0L);
+        String successor = token();
+        rotation.rotate(token, familyId, successor);
+        Thread.sleep(200);
+
+        assertThat(rotation.rotate(token, familyId, token()).outcome()).isEqualTo(Outcome.REUSED);
+        assertThat(rotation.rotate(successor, familyId, token()).outcome()).isEqualTo(Outcome.REVOKED);
+    }
+
+    @Test
+    void refusesToStartAFamilyOnAnExistingRecord() {
+        RefreshTokenRotation rotation = rotation(Duration.ofSeconds(10));
+        String token = token();
+        rotation.start(token, userId, workspaceId, familyId, 0L);
+
+        assertThatThrownBy(() -> rotation.start(token, userId, workspaceId, UUID.randomUUID(), 0L))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(rotation.find(token)).contains(new RefreshClaims(userId, workspaceId, 0L, familyId));
+    }
+
+    @Test
+    void doesNotRecognizeTokenWithoutRecord() {
+        RefreshTokenRotation rotation = rotation(Duration.ofSeconds(10));
+        String token = token();
+
+        assertThat(rotation.find(token)).isEmpty();
+        assertThat(rotation.rotate(token, familyId, token()).outcome()).isEqualTo(Outcome.UNKNOWN);
+    }
+
+    @Test
+    void consumesLegacyTokenOnce() {
+        RefreshTokenRotation rotation = rotation(Duration.ofSeconds(10));
+        String token = token();
+
+        assertThat(rotation.consumeLegacy(token)).isTrue();
+        assertThat(rotation.consumeLegacy(token)).isFalse();
+    }
+
+    private RefreshTokenRotation rotation(Duration gracePeriod) {
+        return new RefreshTokenRotation(redisTemplate, new SimpleMeterRegistry(), VALIDITY_MILLIS, gracePeriod);
+    }
+
+    private static String token() {
+        return UUID.randomUUID().toString();
+    }
+}
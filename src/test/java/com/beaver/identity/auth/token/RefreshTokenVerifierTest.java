@@ -0,0 +1,114 @@
+package com.beaver.identity.auth.token;
+
+import com.beaver.auth.exceptions.InvalidRefreshTokenException;
+import com.beaver.auth.jwt.JwtService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RefreshTokenVerifierTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID workspaceId = UUID.randomUUID();
+    private final String jwt = jwt("{\"userId\":\"" + userId + "\",\"workspaceId\":\"" + workspaceId
+            + "\",\"type\":\"refresh\"}");
+    private final String token = jwt + "~handle";
+
+    private JwtService jwtService;
+    private RefreshTokenRotation rotation;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = mock(JwtService.class);
+        rotation = mock(RefreshTokenRotation.class);
+        when(jwtService.validateRefreshToken(anyString())).thenAnswer(invocation -> Mono.empty());
+        when(rotation.find(token)).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void resolvesClaimsFromTheTokensRecord() {
+        RefreshClaims recorded = new RefreshClaims(userId, workspaceId, 3L, UUID.randomUUID());
+        when(rotation.find(token)).thenReturn(Optional.of(recorded));
+
+        assertThat(verifier(Instant.MIN).verify(token)).isEqualTo(recorded);
+        verify(jwtService).validateRefreshToken(jwt);
+    }
+
+    @Test
+    void rejectsTokenTheLibraryRejects() {
+        when(jwtService.validateRefreshToken(jwt))
+                .thenAnswer(invocation -> Mono.error(new IllegalArgumentException("Token is not a refresh token")));
+
+        assertThatThrownBy(() -> verifier(Instant.MAX).verify(token)).isInstanceOf(InvalidRefreshTokenException.class);
+        verify(rotation, never()).find(token);
+    }
+
+    @Test
+    void rejectsTokenTheLibraryReportsInvalid() {
+        when(jwtService.validateRefreshToken(jwt)).thenAnswer(invocation -> Mono.just(false));
+
+        assertThatThrownBy(() -> verifier(Instant.MAX).verify(token)).isInstanceOf(InvalidRefreshTokenException.class);
+    }
+
+    @Test
+    void rejectsTokenWithHandleButWithoutRecord() {
+        assertThatThrownBy(() -> verifier(Instant.MAX).verify(token)).isInstanceOf(InvalidRefreshTokenException.class);
+    }
+
+    @Test
+    void rejectsTokenWithoutHandleByDefault() {
+        assertThatThrownBy(() -> verifier(Instant.MIN).verify(jwt)).isInstanceOf(InvalidRefreshTokenException.class);
+    }
+
+    @Test
+    void acceptsTokenWithoutHandleUntilTheLegacyCutoff() {
+        RefreshClaims claims = verifier(NOW.plusSeconds(1)).verify(jwt);
+
+        assertThat(claims).isEqualTo(new RefreshClaims(userId, workspaceId, 0L, null));
+        assertThat(claims.legacy()).isTrue();
+        verify(jwtService, never()).extractUserIdFromToken(anyString());
+        verify(jwtService, never()).extractWorkspaceIdFromToken(anyString());
+    }
+
+    @Test
+    void rejectsTokenWithoutHandleMissingWorkspace() {
+        String legacy = jwt("{\"userId\":\"" + userId + "\",\"type\":\"refresh\"}");
+
+        assertThatThrownBy(() -> verifier(Instant.MAX).verify(legacy)).isInstanceOf(InvalidRefreshTokenException.class);
+    }
+
+    @Test
+    void rejectsTokenWithoutHandleAfterTheLegacyCutoff() {
+        assertThatThrownBy(() -> verifier(NOW).verify(jwt)).isInstanceOf(InvalidRefreshTokenException.class);
+    }
+
+    private RefreshTokenVerifier verifier(Instant legacyAcceptedUntil) {
+        return new RefreshTokenVerifier(jwtService, rotation, new ObjectMapper(), legacyAcceptedUntil,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    private static String jwt(String payload) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString("{\"alg\":\"HS256\"}".getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + ".signature";
+    }
+}
@@ -0,0 +1,25 @@
+package com.beaver.identity.common.audit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditContextFilterTest {
+
+    @Test
+    void recordsTheRemoteAddressAndIgnoresForwardedForSentByTheClient() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("203.0.113.7");
+        request.addHeader("X-Forwarded-For", "198.51.100.1, 203.0.113.7");
+        AtomicReference<AuditContext> seen = new AtomicReference<>();
+
+        new AuditContextFilter().doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> seen.set(AuditContext.current()));
+
+        assertThat(seen.get().clientIp()).isEqualTo("203.0.113.7");
+    }
+}
@@ -0,0 +1,74 @@
+package com.beaver.identity.common.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        int callers = 8;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<SingleFlight.Result>> results = new ArrayList<>();
+            results.add(executor.submit(() -> singleFlight.load("key", () -> {
+                loads.incrementAndGet();
+                started.countDown();
+                release.await();
+                return "value";
+            })));
+            started.await();
+            for (int i = 1; i < callers; i++) {
+                results.add(executor.submit(() -> singleFlight.load("key", () -> {
+                    loads.incrementAndGet();
+                    return "other";
+                })));
+            }
+            // Give the followers time to join the in-flight load
+            Thread.sleep(100);
+            release.countDown();
+
+            int leaders = 0;
+            for (Future<SingleFlight.Result> result : results) {
+                SingleFlight.Result outcome = result.get(5, TimeUnit.SECONDS);
+                assertThat(outcome.value()).isEqualTo("value");
+                leaders += outcome.leader() ? 1 : 0;
+            }
+            assertThat(loads).hasValue(1);
+            assertThat(leaders).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void failureIsSharedAndTheNextCallLoadsAgain() throws Exception {
+        assertThatThrownBy(() -> singleFlight.load("key", () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(singleFlight.load("key", () -> "value").value()).isEqualTo("value");
+    }
+
+    @Test
+    void differentKeysLoadIndependently() throws Exception {
+        assertThat(singleFlight.load("a", () -> "1").value()).isEqualTo("1");
+        assertThat(singleFlight.load("b", () -> "2").value()).isEqualTo("2");
+    }
+}
@@ -0,0 +1,100 @@
+package com.beaver.identity.common.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TwoTierCacheTest {
+
+    private final ConcurrentMapCacheManager remoteCacheManager = new ConcurrentMapCacheManager("users");
+    private StringRedisTemplate redisTemplate;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+    }
+
+    private TwoTierCacheManager manager(Duration loadLockTtl, Duration maxWait) {
+        return new TwoTierCacheManager(remoteCacheManager, redisTemplate, new SimpleMeterRegistry(),
+                100, Duration.ofMinutes(1), loadLockTtl, Duration.ofMillis(5), maxWait);
+    }
+
+    @Test
+    void readThroughFillDoesNotAnnounceAnEviction() {
+        Cache cache = manager(Duration.ZERO, Duration.ZERO).getCache("users");
+
+        assertThat(cache.get("id:1", () -> "loaded")).isEqualTo("loaded");
+
+        assertThat(remoteCacheManager.getCache("users").get("id:1")).isNotNull();
+        verify(redisTemplate, never()).convertAndSend(anyString(), anyString());
+    }
+
+    @Test
+    void writesAndEvictionsAreAnnounced() {
+        Cache cache = manager(Duration.ZERO, Duration.ZERO).getCache("users");
+
+        cache.put("id:1", "written");
+        cache.evict("id:1");
+
+        verify(redisTemplate, times(2)).convertAndSend(eq(TwoTierCacheManager.INVALIDATION_TOPIC.getTopic()), anyString());
+    }
+
+    @Test
+    void servesRepeatReadsFromTheLocalCopy() {
+        Cache cache = manager(Duration.ZERO, Duration.ZERO).getCache("users");
+        cache.get("id:1", () -> "loaded");
+
+        // Changed behind the cache's back; the local copy still answers
+        remoteCacheManager.getCache("users").put("id:1", "changed");
+
+        assertThat(cache.get("id:1").get()).isEqualTo("loaded");
+    }
+
+    @Test
+    void remoteEvictionDropsTheLocalCopy() {
+        TwoTierCacheManager manager = manager(Duration.ZERO, Duration.ZERO);
+        Cache cache = manager.getCache("users");
+        cache.get("id:1", () -> "loaded");
+        remoteCacheManager.getCache("users").put("id:1", "changed");
+
+        manager.onMessage(new DefaultMessage(new byte[0],
+                "other-node|E|users|id:1".getBytes(StandardCharsets.UTF_8)), null);
+
+        assertThat(cache.get("id:1").get()).isEqualTo("changed");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void loadsItselfOnceTheBoundedWaitForAnotherNodeRunsOut() {
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        Cache cache = manager(Duration.ofSeconds(30), Duration.ofMillis(50)).getCache("users");
+
+        AtomicInteger loads = new AtomicInteger();
+        long start = System.nanoTime();
+        Object value = cache.get("id:1", () -> "loaded-" + loads.incrementAndGet());
+
+        assertThat(value).isEqualTo("loaded-1");
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+    }
+}
@@ -0,0 +1,116 @@
+package com.beaver.identity.common.cache.serialization;
+
+import com.beaver.identity.workspace.dto.WorkspaceSnapshot;
+import com.beaver.identity.workspace.enums.PlanType;
+import com.beaver.identity.workspace.enums.WorkspaceStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VersionedCacheSerializerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @ParameterizedTest
+    @ValueSource(strings = {"smile", "json"})
+    void roundTripsSingleValue(String format) {
+        VersionedCacheSerializer serializer = serializer(format, Integer.MAX_VALUE);
+        WorkspaceSnapshot workspace = workspace("Acme");
+
+        byte[] bytes = serializer.serialize(workspace);
+
+        assertThat(bytes[0]).isEqualTo((byte) 0xBE);
+        assertThat(bytes[1]).isEqualTo(VersionedCacheSerializer.SCHEMA_VERSION);
+        assertThat(serializer.deserialize(bytes)).isEqualTo(workspace);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"smile", "json"})
+    void roundTripsList(String format) {
+        VersionedCacheSerializer serializer = serializer(format, Integer.MAX_VALUE);
+        List<WorkspaceSnapshot> workspaces = List.of(workspace("Acme"), workspace("Globex"));
+
+        assertThat(serializer.deserialize(serializer.serialize(workspaces))).isEqualTo(workspaces);
+    }
+
+    @Test
+    void roundTripsEmptyList() {
+        VersionedCacheSerializer serializer = serializer("smile", Integer.MAX_VALUE);
+
+        assertThat(serializer.deserialize(serializer.serialize(List.of()))).isEqualTo(List.of());
+    }
+
+    @Test
+    void compressesPayloadsAboveTheThreshold() {
+        VersionedCacheSerializer serializer = serializer("json", 16);
+        List<WorkspaceSnapshot> workspaces = List.of(workspace("Acme"), workspace("Acme"), workspace("Acme"));
+
+        byte[] bytes = serializer.serialize(workspaces);
+
+        assertThat(bytes[2] & 0x01).isEqualTo(1);
+        assertThat(bytes.length).isLessThan(serializer("json", Integer.MAX_VALUE).serialize(workspaces).length);
+        assertThat(serializer.deserialize(bytes)).isEqualTo(workspaces);
+    }
+
+    @Test
+    void treatsAnotherSchemaVersionAsMiss() {
+        VersionedCacheSerializer serializer = serializer("smile", Integer.MAX_VALUE);
+        byte[] bytes = serializer.serialize(workspace("Acme"));
+        bytes[1] = (byte) (VersionedCacheSerializer.SCHEMA_VERSION - 1);
+
+        assertThat(serializer.deserialize(bytes)).isNull();
+        assertThat(discarded("version")).isEqualTo(1);
+    }
+
+    @Test
+    void treatsCorruptEntriesAsMiss() {
+        VersionedCacheSerializer serializer = serializer("smile", 0);
+        byte[] bytes = serializer.serialize(workspace("Acme"));
+
+        assertThat(serializer.deserialize(Arrays.copyOf(bytes, bytes.length / 2))).isNull();
+        assertThat(serializer.deserialize("[\"java.util.ArrayList\",[]]".getBytes(StandardCharsets.UTF_8))).isNull();
+        assertThat(discarded("corrupt")).isEqualTo(2);
+    }
+
+    @Test
+    void treatsEmptyValueAsNull() {
+        VersionedCacheSerializer serializer = serializer("smile", Integer.MAX_VALUE);
+
+        assertThat(serializer.serialize(null)).isEmpty();
+        assertThat(serializer.deserialize(new byte[0])).isNull();
+        assertThat(serializer.deserialize(null)).isNull();
+    }
+
+    @Test
+    void rejectsUnregisteredTypes() {
+        VersionedCacheSerializer serializer = serializer("smile", Integer.MAX_VALUE);
+
+        assertThatThrownBy(() -> serializer.serialize("not a snapshot")).isInstanceOf(SerializationException.class);
+    }
+
+    private VersionedCacheSerializer serializer(String format, int compressionThreshold) {
+        return new VersionedCacheSerializer("workspaces", JacksonPayloadFormat.forName(format), compressionThreshold,
+                meterRegistry);
+    }
+
+    private double discarded(String reason) {
+        return meterRegistry.get("identity.cache.discarded").tag("reason", reason).counter().count();
+    }
+
+    private static WorkspaceSnapshot workspace(String name) {
+        LocalDateTime now = LocalDateTime.of(2026, 1, 1, 12, 0);
+        return new WorkspaceSnapshot(UUID.randomUUID(), name, WorkspaceStatus.ACTIVE, PlanType.STARTER,
+                null, now, now, UUID.randomUUID());
+    }
+}
@@ -0,0 +1,67 @@
+package com.beaver.identity.common.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UuidV7Test {
+
+    // Unsigned order of the most significant bits, which is how Postgres compares uuid values
+    private static final Comparator<UUID> BYTE_ORDER = (a, b) -> {
+        int high = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return high != 0 ? high : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    };
+
+    @Test
+    void setsVersionAndVariant() {
+        UUID id = UuidV7.next();
+
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+    }
+
+    @Test
+    void carriesTheCurrentUnixMillisecond() {
+        long before = System.currentTimeMillis();
+        UUID id = UuidV7.next();
+        long after = System.currentTimeMillis();
+
+        // A counter overflow from earlier bursts borrows the following milliseconds
+        assertThat(id.getMostSignificantBits() >>> 16).isBetween(before, after + 1_000);
+    }
+
+    @Test
+    void idsFromOneThreadAreStrictlyIncreasing() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            ids.add(UuidV7.next());
+        }
+
+        for (int i = 1; i < ids.size(); i++) {
+            assertThat(BYTE_ORDER.compare(ids.get(i - 1), ids.get(i))).isNegative();
+        }
+    }
+
+    @Test
+    void concurrentIdsAreUnique() {
+        Set<UUID> ids = ConcurrentHashMap.newKeySet();
+        IntStream.range(0, 8).parallel().forEach(thread -> {
+            Set<UUID> local = new HashSet<>();
+            for (int i = 0; i < 20_000; i++) {
+                local.add(UuidV7.next());
+            }
+            ids.addAll(local);
+        });
+
+        assertThat(ids).hasSize(160_000);
+    }
+}
@@ -0,0 +1,123 @@
+package com.beaver.identity.common.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers(disabledWithoutDocker = true)
+class OutboxRelayTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private final List<OutboxEvent> published = new CopyOnWriteArrayList<>();
+
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+    private TransactionTemplate transactionTemplate;
+    private Outbox outbox;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        Flyway.configure().dataSource(dataSource).load().migrate();
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("DELETE FROM outbox_events");
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        outbox = new Outbox(jdbcTemplate, new ObjectMapper());
+        relay = new OutboxRelay(jdbcTemplate, transactionManager, published::addAll, new SimpleMeterRegistry(),
+                false, 200, Duration.ofMillis(500));
+    }
+
+    @Test
+    void relaysOnlyTheOldestPendingEventOfEachAggregatePerBatch() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        transactionTemplate.executeWithoutResult(status -> {
+            outbox.append("user", first, "UserUpdated", Map.of("n", 1));
+            outbox.append("user", first, "UserUpdated", Map.of("n", 2));
+            outbox.append("user", second, "UserUpdated", Map.of("n", 1));
+        });
+
+        assertThat(relay.relayBatch()).isEqualTo(2);
+        assertThat(relay.relayBatch()).isEqualTo(1);
+        assertThat(relay.relayBatch()).isZero();
+
+        assertThat(published).filteredOn(event -> event.aggregateId().equals(first))
+                .extracting(OutboxEvent::aggregateVersion)
+                .containsExactly(1L, 2L);
+    }
+
+    @Test
+    void keepsCommitOrderWhenAnAggregateIsAppendedToConcurrently() throws Exception {
+        UUID aggregateId = UUID.randomUUID();
+
+        // The first transaction appends and stays open
+        TransactionStatus first = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        outbox.append("user", aggregateId, "UserUpdated", Map.of("n", 1));
+
+        // The second one must wait for the aggregate's row instead of taking a later id and committing first
+        CompletableFuture<Void> second = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(
+                status -> outbox.append("user", aggregateId, "UserUpdated", Map.of("n", 2))));
+        Thread.sleep(300);
+        assertThat(second).isNotDone();
+        assertThat(relay.relayBatch()).isZero();
+
+        transactionManager.commit(first);
+        second.get(5, TimeUnit.SECONDS);
+
+        while (relay.relayBatch() > 0) {
+            // Drain one eligible event per aggregate at a time
+        }
+        assertThat(published).extracting(OutboxEvent::payload)
+                .containsExactly("{\"n\": 1}", "{\"n\": 2}");
+        assertThat(published).extracting(OutboxEvent::aggregateVersion)
+                .containsExactly(1L, 2L);
+    }
+
+    @Test
+    void appendsBatchesWithTheirOwnVersions() {
+        UUID existing = UUID.randomUUID();
+        UUID fresh = UUID.randomUUID();
+        transactionTemplate.executeWithoutResult(status ->
+                outbox.append("membership", existing, "MembershipAdded", Map.of("n", 1)));
+
+        transactionTemplate.executeWithoutResult(status -> outbox.appendAll("membership", "MembershipAdded",
+                Map.of(existing, Map.of("n", 2), fresh, Map.of("n", 1))));
+
+        while (relay.relayBatch() > 0) {
+            // Drain
+        }
+        assertThat(published).filteredOn(event -> event.aggregateId().equals(existing))
+                .extracting(OutboxEvent::aggregateVersion)
+                .containsExactly(1L, 2L);
+        assertThat(published).filteredOn(event -> event.aggregateId().equals(fresh))
+                .extracting(OutboxEvent::aggregateVersion)
+                .containsExactly(1L);
+    }
+}
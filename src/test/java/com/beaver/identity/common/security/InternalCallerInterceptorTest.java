@@ -0,0 +1,61 @@
+package com.beaver.identity.common.security;
+
+import com.beaver.auth.exceptions.AccessDeniedException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InternalCallerInterceptorTest {
+
+    private final InternalCallerInterceptor interceptor = new InternalCallerInterceptor("s3cret");
+
+    @Test
+    void letsInternalCallersThrough() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(InternalCallerInterceptor.SECRET_HEADER, "s3cret");
+
+        assertThat(interceptor.preHandle(request, new MockHttpServletResponse(), handler(InternalEndpoint.class))).isTrue();
+    }
+
+    @Test
+    void rejectsCallersWithoutTheSecret() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+
+        assertThatThrownBy(() -> interceptor.preHandle(request, new MockHttpServletResponse(), handler(InternalEndpoint.class)))
+                .isInstanceOf(AccessDeniedException.class);
+    }
+
+    @Test
+    void rejectsCallersWithTheWrongSecret() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(InternalCallerInterceptor.SECRET_HEADER, "guess");
+
+        assertThatThrownBy(() -> interceptor.preHandle(request, new MockHttpServletResponse(), handler(InternalEndpoint.class)))
+                .isInstanceOf(AccessDeniedException.class);
+    }
+
+    @Test
+    void ignoresOtherEndpoints() throws Exception {
+        assertThat(interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(),
+                handler(PublicEndpoint.class))).isTrue();
+    }
+
+    private static HandlerMethod handler(Class<?> type) throws Exception {
+        return new HandlerMethod(type.getDeclaredConstructor().newInstance(), type.getMethod("handle"));
+    }
+
+    @InternalOnly
+    public static class InternalEndpoint {
+        public void handle() {
+        }
+    }
+
+    public static class PublicEndpoint {
+        public void handle() {
+        }
+    }
+}
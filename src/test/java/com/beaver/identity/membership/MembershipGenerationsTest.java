@@ -0,0 +1,97 @@
+package com.beaver.identity.membership;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MembershipGenerationsTest {
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID workspaceId = UUID.randomUUID();
+
+    private final Map<String, String> redis = new ConcurrentHashMap<>();
+
+    private ValueOperations<String, String> valueOperations;
+    private MembershipGenerations generations;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        valueOperations = mock(ValueOperations.class);
+        when(valueOperations.multiGet(anyList())).thenAnswer(invocation ->
+                ((List<String>) invocation.getArgument(0)).stream().map(redis::get).toList());
+        doAnswer(invocation -> redis.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(valueOperations).set(anyString(), anyString(), any(Duration.class));
+
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+
+        generations = new MembershipGenerations(redisTemplate, Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void bumpChangesTheKeyOfEveryMembershipOfTheUser() {
+        String before = generations.userWorkspaceKey(userId, workspaceId);
+
+        generations.bumpUser(userId);
+
+        assertThat(generations.userWorkspaceKey(userId, workspaceId)).isNotEqualTo(before);
+        assertThat(generations.userAndWorkspaceGenerations(userId, List.of(workspaceId)))
+                .first().isNotEqualTo(0L);
+    }
+
+    @Test
+    void generationKeysGetFreshRandomValuesAndExpire() {
+        generations.bumpWorkspace(workspaceId);
+        String first = redis.get("memberships:gen:workspace:" + workspaceId);
+        generations.bumpWorkspace(workspaceId);
+
+        assertThat(redis.get("memberships:gen:workspace:" + workspaceId)).isNotEqualTo(first).isNotEqualTo("0");
+        verify(valueOperations, times(2))
+                .set(eq("memberships:gen:workspace:" + workspaceId), anyString(), eq(Duration.ofHours(1)));
+        verify(valueOperations, never()).increment(anyString());
+    }
+
+    @Test
+    void bumpIsDeferredUntilTheWritingTransactionCommits() {
+        TransactionSynchronizationManager.initSynchronization();
+        generations.bumpUser(userId);
+
+        assertThat(redis).doesNotContainKey("memberships:gen:user:" + userId);
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(redis).containsKey("memberships:gen:user:" + userId);
+    }
+}
@@ -0,0 +1,85 @@
+package com.beaver.identity.membership.index;
+
+import com.beaver.auth.roles.Role;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MembershipIndexTest {
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID workspaceId = UUID.randomUUID();
+
+    private JdbcTemplate jdbcTemplate;
+    private MembershipIndex index;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        index = new MembershipIndex(jdbcTemplate, mock(PlatformTransactionManager.class), new SimpleMeterRegistry(),
+                "jdbc:postgresql://localhost/identity", "identity", "identity", false,
+                Duration.ofSeconds(5), Duration.ofSeconds(5));
+    }
+
+    @Test
+    void isNotReadyUntilLoaded() {
+        index.start();
+
+        assertThat(index.isReady()).isFalse();
+    }
+
+    @Test
+    void appliesMembershipChanges() {
+        index.apply("m," + userId + "," + workspaceId + ",ADMIN");
+        assertThat(index.findRole(userId, workspaceId)).contains(Role.ADMIN);
+
+        index.apply("m," + userId + "," + workspaceId + ",");
+        assertThat(index.findRole(userId, workspaceId)).isEmpty();
+    }
+
+    @Test
+    void reloadsAWorkspaceWhenItsRolesChange() throws Exception {
+        UUID formerMember = UUID.randomUUID();
+        UUID otherWorkspace = UUID.randomUUID();
+        index.apply("m," + userId + "," + workspaceId + ",READ");
+        index.apply("m," + formerMember + "," + workspaceId + ",READ");
+        index.apply("m," + userId + "," + otherWorkspace + ",OWNER");
+
+        ResultSet row = mock(ResultSet.class);
+        when(row.getObject(1, UUID.class)).thenReturn(userId);
+        when(row.getString(3)).thenReturn("WRITE");
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(row);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), eq(workspaceId));
+
+        index.apply("w," + workspaceId);
+
+        assertThat(index.findRole(userId, workspaceId)).contains(Role.WRITE);
+        assertThat(index.findRole(formerMember, workspaceId)).isEmpty();
+        assertThat(index.findRole(userId, otherWorkspace)).contains(Role.OWNER);
+    }
+
+    @Test
+    void ignoresMalformedPayloads() {
+        index.apply("x,garbage");
+
+        assertThat(index.findRole(userId, workspaceId)).isEmpty();
+    }
+}
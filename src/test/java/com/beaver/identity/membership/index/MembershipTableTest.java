@@ -0,0 +1,92 @@
+package com.beaver.identity.membership.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MembershipTableTest {
+
+    private final MembershipTable table = new MembershipTable(0);
+
+    @Test
+    void storesAndOverwritesRoles() {
+        UUID user = UUID.randomUUID();
+        UUID workspace = UUID.randomUUID();
+
+        assertThat(table.get(user, workspace)).isEqualTo(MembershipTable.ABSENT);
+        table.put(user, workspace, 2);
+        table.put(user, workspace, 1);
+
+        assertThat(table.get(user, workspace)).isEqualTo(1);
+        assertThat(table.size()).isEqualTo(1);
+    }
+
+    @Test
+    void removesEntries() {
+        UUID user = UUID.randomUUID();
+        UUID workspace = UUID.randomUUID();
+        table.put(user, workspace, 0);
+
+        table.remove(user, workspace);
+
+        assertThat(table.get(user, workspace)).isEqualTo(MembershipTable.ABSENT);
+        assertThat(table.size()).isZero();
+    }
+
+    @Test
+    void keepsEveryEntryAcrossResizes() {
+        UUID workspace = UUID.randomUUID();
+        List<UUID> users = IntStream.range(0, 10_000).mapToObj(i -> UUID.randomUUID()).toList();
+        users.forEach(user -> table.put(user, workspace, 3));
+
+        assertThat(table.size()).isEqualTo(10_000);
+        assertThat(users).allMatch(user -> table.get(user, workspace) == 3);
+    }
+
+    @Test
+    void replacesOnlyTheGivenWorkspace() {
+        UUID replaced = UUID.randomUUID();
+        UUID untouched = UUID.randomUUID();
+        List<UUID> users = IntStream.range(0, 100).mapToObj(i -> UUID.randomUUID()).toList();
+        users.forEach(user -> {
+            table.put(user, replaced, 3);
+            table.put(user, untouched, 3);
+        });
+
+        List<MembershipTable.Entry> remaining = new ArrayList<>();
+        users.subList(0, 10).forEach(user -> remaining.add(new MembershipTable.Entry(user, 1)));
+        table.replaceWorkspace(replaced, remaining);
+
+        assertThat(table.size()).isEqualTo(110);
+        assertThat(users.subList(0, 10)).allMatch(user -> table.get(user, replaced) == 1);
+        assertThat(users.subList(10, 100)).allMatch(user -> table.get(user, replaced) == MembershipTable.ABSENT);
+        assertThat(users).allMatch(user -> table.get(user, untouched) == 3);
+    }
+
+    @Test
+    void replacesWorkspacesCorrectlyAfterRemovalsAndTombstoneReuse() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        List<UUID> users = IntStream.range(0, 50).mapToObj(i -> UUID.randomUUID()).toList();
+        users.forEach(user -> table.put(user, first, 3));
+        // Frees slots that entries of the second workspace may reuse
+        users.subList(0, 25).forEach(user -> table.remove(user, first));
+        users.forEach(user -> table.put(user, second, 2));
+
+        table.replaceWorkspace(first, List.of());
+
+        assertThat(users).allMatch(user -> table.get(user, first) == MembershipTable.ABSENT);
+        assertThat(users).allMatch(user -> table.get(user, second) == 2);
+        assertThat(table.size()).isEqualTo(50);
+
+        table.replaceWorkspace(second, List.of(new MembershipTable.Entry(users.getFirst(), 0)));
+
+        assertThat(table.size()).isEqualTo(1);
+        assertThat(table.get(users.getFirst(), second)).isZero();
+    }
+}
@@ -0,0 +1,182 @@
+package com.beaver.identity.membership.invitation;
+
+import com.beaver.identity.common.audit.AuditEvent;
+import com.beaver.identity.common.audit.AuditTrail;
+import com.beaver.identity.common.outbox.Outbox;
+import com.beaver.identity.membership.MembershipService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MemberInvitationServiceTest {
+
+    private final UUID workspaceId = UUID.randomUUID();
+    private final Map<String, UUID> users = new HashMap<>();
+    private final Set<UUID> members = new HashSet<>();
+    /** Members committed by a concurrent request after findMembers ran. */
+    private final Set<UUID> lateMembers = new HashSet<>();
+
+    private MembershipService membershipService;
+    private AuditTrail auditTrail;
+    private Outbox outbox;
+    private MemberInvitationService service;
+
+    @BeforeEach
+    void setUp() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class, invocation -> {
+            String method = invocation.getMethod().getName();
+            String sql = invocation.getArgument(0);
+            if (method.equals("query") && sql.startsWith("SELECT id, role_type")) {
+                RowCallbackHandler handler = invocation.getArgument(1);
+                for (String role : List.of("OWNER", "ADMIN", "WRITE", "READ")) {
+                    handler.processRow(row("role_type", role, UUID.randomUUID()));
+                }
+                return null;
+            }
+            if (method.equals("query") && sql.startsWith("SELECT id, email")) {
+                RowCallbackHandler handler = invocation.getArgument(1);
+                for (String email : (String[]) invocation.getArgument(2)) {
+                    if (users.containsKey(email)) {
+                        handler.processRow(row("email", email, users.get(email)));
+                    }
+                }
+                return null;
+            }
+            if (method.equals("queryForList") && sql.startsWith("SELECT user_id")) {
+                return Arrays.stream((UUID[]) invocation.getArgument(3)).filter(members::contains).toList();
+            }
+            if (method.equals("queryForList") && sql.startsWith("INSERT INTO workspace_memberships")) {
+                UUID[] ids = invocation.getArgument(8);
+                UUID[] userIds = invocation.getArgument(9);
+                List<UUID> inserted = new ArrayList<>();
+                for (int i = 0; i < ids.length; i++) {
+                    if (!lateMembers.contains(userIds[i]) && members.add(userIds[i])) {
+                        inserted.add(ids[i]);
+                    }
+                }
+                return inserted;
+            }
+            throw new UnsupportedOperationException(method + ": " + sql);
+        });
+        membershipService = mock(MembershipService.class);
+        auditTrail = mock(AuditTrail.class);
+        outbox = mock(Outbox.class);
+        service = new MemberInvitationService(jdbcTemplate, mock(PlatformTransactionManager.class),
+                membershipService, auditTrail, outbox);
+    }
+
+    @Test
+    void reportsEachRowWithItsOwnStatus() {
+        users.put("new@example.com", UUID.randomUUID());
+        users.put("member@example.com", UUID.randomUUID());
+        members.add(users.get("member@example.com"));
+
+        List<InvitationResult> results = new ArrayList<>();
+        long invited = service.inviteAll(workspaceId, List.of(
+                new InvitationRow(1, "new@example.com", "read"),
+                new InvitationRow(2, "member@example.com", "write"),
+                new InvitationRow(3, "ghost@example.com", "read"),
+                new InvitationRow(4, "not-an-email", "read"),
+                new InvitationRow(5, "new@example.com", "owner")).iterator(), results::add);
+
+        assertThat(invited).isEqualTo(1);
+        assertThat(results).extracting(InvitationResult::status).containsExactly(
+                InvitationStatus.INVITED,
+                InvitationStatus.ALREADY_MEMBER,
+                InvitationStatus.USER_NOT_FOUND,
+                InvitationStatus.INVALID_EMAIL,
+                InvitationStatus.INVALID_ROLE);
+        verify(membershipService).invalidateWorkspace(workspaceId);
+    }
+
+    @Test
+    void rowsSkippedByTheConflictClauseAreNeitherInvitedNorAudited() {
+        users.put("new@example.com", UUID.randomUUID());
+        users.put("racing@example.com", UUID.randomUUID());
+        lateMembers.add(users.get("racing@example.com"));
+
+        List<InvitationResult> results = new ArrayList<>();
+        long invited = service.inviteAll(workspaceId, List.of(
+                new InvitationRow(1, "new@example.com", "read"),
+                new InvitationRow(2, "racing@example.com", "read")).iterator(), results::add);
+
+        assertThat(invited).isEqualTo(1);
+        assertThat(results).extracting(InvitationResult::status)
+                .containsExactly(InvitationStatus.INVITED, InvitationStatus.ALREADY_MEMBER);
+        ArgumentCaptor<AuditEvent> events = ArgumentCaptor.forClass(AuditEvent.class);
+        verify(auditTrail, times(1)).record(events.capture());
+        assertThat(events.getValue().entityType()).isEqualTo("WorkspaceMembership");
+        ArgumentCaptor<Map<UUID, ?>> outboxEvents = ArgumentCaptor.forClass(Map.class);
+        verify(outbox).appendAll(eq("membership"), eq("MembershipAdded"), outboxEvents.capture());
+        assertThat(outboxEvents.getValue().keySet()).containsExactly(events.getValue().entityId());
+    }
+
+    @Test
+    void invalidatesCommittedChunksWhenALaterChunkFails() {
+        int committed = MemberInvitationService.CHUNK_SIZE;
+        IntStream.range(0, committed).forEach(i -> users.put("user" + i + "@example.com", UUID.randomUUID()));
+        Iterator<InvitationRow> firstChunk = IntStream.range(0, committed)
+                .mapToObj(i -> new InvitationRow(i + 1, "user" + i + "@example.com", "read"))
+                .iterator();
+        Iterator<InvitationRow> rows = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public InvitationRow next() {
+                if (firstChunk.hasNext()) {
+                    return firstChunk.next();
+                }
+                throw new IllegalStateException("Upload interrupted");
+            }
+        };
+
+        List<InvitationResult> results = new ArrayList<>();
+        assertThatThrownBy(() -> service.inviteAll(workspaceId, rows, results::add))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(results).hasSize(committed).allMatch(result -> result.status() == InvitationStatus.INVITED);
+        verify(membershipService).invalidateWorkspace(workspaceId);
+    }
+
+    @Test
+    void doesNotInvalidateWhenNothingWasCreated() {
+        service.inviteAll(workspaceId, List.of(new InvitationRow(1, "ghost@example.com", "read")).iterator(),
+                result -> { });
+
+        verify(membershipService, never()).invalidateWorkspace(workspaceId);
+    }
+
+    private static ResultSet row(String column, String value, UUID id) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getString(column)).thenReturn(value);
+        when(rs.getObject("id", UUID.class)).thenReturn(id);
+        return rs;
+    }
+}
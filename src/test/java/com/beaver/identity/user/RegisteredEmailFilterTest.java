@@ -0,0 +1,125 @@
+package com.beaver.identity.user;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RegisteredEmailFilterTest {
+
+    private final List<String> table = new CopyOnWriteArrayList<>();
+
+    private IUserRepository userRepository;
+    private StringRedisTemplate redisTemplate;
+    private RegisteredEmailFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(IUserRepository.class);
+        when(userRepository.count()).thenAnswer(invocation -> (long) table.size());
+        when(userRepository.streamAllEmails()).thenAnswer(invocation -> List.copyOf(table).stream());
+
+        redisTemplate = mock(StringRedisTemplate.class);
+        filter = new RegisteredEmailFilter(userRepository, redisTemplate,
+                mock(PlatformTransactionManager.class), mock(RedisMessageListenerContainer.class),
+                new SimpleMeterRegistry(), 1_000, 0.01, Duration.ofHours(1));
+    }
+
+    @Test
+    void reportsEverythingAsPossiblyRegisteredBeforeTheFirstBuild() {
+        assertThat(filter.mightContain("anyone@example.com")).isTrue();
+    }
+
+    @Test
+    void rejectsUnknownEmailsAfterABuild() {
+        table.add("john.bob@example.com");
+        filter.rebuild();
+
+        assertThat(filter.mightContain("John.Bob@example.com")).isTrue();
+        assertThat(filter.mightContain("nobody@example.com")).isFalse();
+    }
+
+    @Test
+    void failsTheAddWhenTheOtherNodesCannotBeTold() {
+        filter.rebuild();
+        doThrow(new RedisConnectionFailureException("down"))
+                .when(redisTemplate).convertAndSend(eq(RegisteredEmailFilter.REGISTERED_TOPIC.getTopic()), anyString());
+
+        assertThatThrownBy(() -> filter.add("Unannounced@example.com"))
+                .isInstanceOf(RedisConnectionFailureException.class);
+    }
+
+    @Test
+    void keepsAnEmailAddedBeforeTheRebuildButCommittedAfterItsScan() {
+        filter.rebuild();
+
+        // Added by a signup whose transaction is still open when the next rebuild scans the table
+        filter.add("late.commit@example.com");
+        filter.rebuild();
+
+        assertThat(filter.mightContain("late.commit@example.com")).isTrue();
+    }
+
+    @Test
+    void keepsEmailsAddedWhileTheTableIsScanned() {
+        filter.rebuild();
+        when(userRepository.streamAllEmails()).thenAnswer(invocation -> {
+            filter.add("during.scan@example.com");
+            return Stream.of("existing@example.com");
+        });
+
+        filter.rebuild();
+
+        assertThat(filter.mightContain("during.scan@example.com")).isTrue();
+        assertThat(filter.mightContain("existing@example.com")).isTrue();
+    }
+
+    @Test
+    void concurrentAddsAreNeverLostAcrossRebuilds() throws InterruptedException {
+        filter.rebuild();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch done = new CountDownLatch(3);
+        for (int thread = 0; thread < 3; thread++) {
+            int offset = thread * 500;
+            executor.execute(() -> {
+                IntStream.range(offset, offset + 500).forEach(i -> {
+                    // Added before the signup commits, as SignupWriter does
+                    filter.add("user" + i + "@example.com");
+                    table.add("user" + i + "@example.com");
+                });
+                done.countDown();
+            });
+        }
+        executor.execute(() -> {
+            while (done.getCount() > 0) {
+                filter.rebuild();
+            }
+        });
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(IntStream.range(0, 1_500).allMatch(i -> filter.mightContain("user" + i + "@example.com"))).isTrue();
+    }
+}
@@ -0,0 +1,155 @@
+package com.beaver.identity.user;
+
+import com.beaver.auth.jwt.JwtService;
+import com.beaver.identity.auth.password.PasswordHashingService;
+import com.beaver.identity.auth.session.SessionPrincipalService;
+import com.beaver.identity.auth.session.SessionVersionService;
+import com.beaver.identity.common.exception.InvalidUserDataException;
+import com.beaver.identity.common.mapper.GenericMapper;
+import com.beaver.identity.common.outbox.Outbox;
+import com.beaver.identity.membership.MembershipService;
+import com.beaver.identity.user.dto.UpdateEmail;
+import com.beaver.identity.user.dto.UpdatePassword;
+import com.beaver.identity.user.entity.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserServiceTest {
+
+    private static final String EMAIL = "john.bob@example.com";
+
+    private final UUID userId = UUID.randomUUID();
+
+    private IUserRepository userRepository;
+    private PasswordHashingService passwordHashingService;
+    private Cache users;
+    private Cache loginBundles;
+    private PlatformTransactionManager transactionManager;
+    private UserService service;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(IUserRepository.class);
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        passwordHashingService = mock(PasswordHashingService.class);
+        users = mock(Cache.class);
+        loginBundles = mock(Cache.class);
+        CacheManager cacheManager = mock(CacheManager.class);
+        when(cacheManager.getCache(UserService.LOGIN_BUNDLES_CACHE)).thenReturn(loginBundles);
+        when(cacheManager.getCache("users")).thenReturn(users);
+        transactionManager = mock(PlatformTransactionManager.class);
+
+        service = new UserService(userRepository, passwordHashingService, mock(JwtService.class),
+                mock(MembershipService.class), mock(GenericMapper.class), cacheManager,
+                mock(SessionPrincipalService.class), mock(SessionVersionService.class),
+                mock(RegisteredEmailFilter.class), mock(Outbox.class), transactionManager);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void upgradesHashAndEvictsLoginBundleAfterCommit() {
+        when(userRepository.upgradePassword(userId, "old", "upgraded")).thenReturn(1);
+
+        service.upgradePasswordHash(userId, EMAIL, "old", "upgraded");
+
+        verify(loginBundles, never()).evictIfPresent("email:" + EMAIL);
+        commit();
+        verify(loginBundles).evictIfPresent("email:" + EMAIL);
+    }
+
+    @Test
+    void leavesCachesAloneWhenThePasswordChangedInTheMeantime() {
+        when(userRepository.upgradePassword(userId, "old", "upgraded")).thenReturn(0);
+
+        service.upgradePasswordHash(userId, EMAIL, "old", "upgraded");
+        commit();
+
+        verify(loginBundles, never()).evictIfPresent("email:" + EMAIL);
+    }
+
+    @Test
+    void evictsTheOldEmailOnlyAfterTheEmailChangeCommits() {
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user("hash")));
+
+        service.updateEmail(userId, new UpdateEmail("new@example.com"));
+
+        verify(users, never()).evictIfPresent("email:" + EMAIL);
+        verify(loginBundles, never()).evictIfPresent("email:" + EMAIL);
+        commit();
+        verify(users).evictIfPresent("email:" + EMAIL);
+        verify(loginBundles).evictIfPresent("email:" + EMAIL);
+    }
+
+    @Test
+    void evictsTheLoginBundleOnlyAfterThePasswordChangeCommits() {
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user("hash")));
+        when(passwordHashingService.matches("current", "hash")).thenReturn(true);
+        when(passwordHashingService.encode("new-password")).thenReturn("new-hash");
+
+        service.updatePassword(userId, new UpdatePassword("current", "new-password"));
+
+        verify(loginBundles, never()).evictIfPresent("email:" + EMAIL);
+        commit();
+        verify(loginBundles).evictIfPresent("email:" + EMAIL);
+    }
+
+    @Test
+    void hashesBeforeOpeningTheWriteTransaction() {
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user("hash")));
+        when(passwordHashingService.matches("current", "hash")).thenReturn(true);
+        when(passwordHashingService.encode("new-password")).thenReturn("new-hash");
+
+        service.updatePassword(userId, new UpdatePassword("current", "new-password"));
+
+        InOrder order = inOrder(passwordHashingService, transactionManager, userRepository);
+        order.verify(passwordHashingService).matches("current", "hash");
+        order.verify(passwordHashingService).encode("new-password");
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(userRepository).save(argThat(user -> "new-hash".equals(user.getPassword())));
+    }
+
+    @Test
+    void refusesToOverwriteAPasswordChangedAfterVerification() {
+        when(userRepository.findById(userId))
+                .thenReturn(Optional.of(user("hash")))
+                .thenReturn(Optional.of(user("changed-hash")));
+        when(passwordHashingService.matches("current", "hash")).thenReturn(true);
+        when(passwordHashingService.encode("new-password")).thenReturn("new-hash");
+
+        assertThatThrownBy(() -> service.updatePassword(userId, new UpdatePassword("current", "new-password")))
+                .isInstanceOf(InvalidUserDataException.class);
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    private User user(String passwordHash) {
+        return User.builder().id(userId).email(EMAIL).password(passwordHash).name("John Bob").build();
+    }
+
+    private static void commit() {
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+    }
+}